@@ -3,4 +3,5 @@ package ru.practicum.shareit;
 public class Constants {
 
     public static final String USER_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.SubResponseDto;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static ru.practicum.shareit.Constants.USER_HEADER;
+
+/**
+ * Класс BatchController, представляющий контроллер пакетных запросов.
+ * Позволяет клиенту получить ответы на несколько GET запросов за одно обращение к шлюзу.
+ */
+@Controller
+@RequestMapping(path = "/batch")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class BatchController {
+
+    private final BatchService batchService;
+
+    /**
+     * Обработчик POST запроса на выполнение пакета подзапросов.
+     *
+     * @param userId     Идентификатор пользователя.
+     * @param requestDto Объект BatchRequestDto с подзапросами.
+     * @return Ответы на подзапросы в том же порядке, которые будут получены асинхронно.
+     */
+    @PostMapping
+    public CompletableFuture<ResponseEntity<List<SubResponseDto>>> execute(@RequestHeader(USER_HEADER) long userId,
+                                                                           @Valid @RequestBody BatchRequestDto requestDto) {
+        log.info("POST запрос на выполнение пакета из {} подзапросов, userId={}", requestDto.getRequests().size(), userId);
+        return batchService.execute(userId, requestDto.getRequests()).thenApply(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,275 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import ru.practicum.shareit.batch.dto.SubRequestDto;
+import ru.practicum.shareit.batch.dto.SubResponseDto;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+import ru.practicum.shareit.exceptions.OverloadedException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+import ru.practicum.shareit.request.RequestClient;
+import ru.practicum.shareit.user.UserClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Класс BatchService, выполняющий подзапросы пакетного запроса.
+ * Все подзапросы проверяются до отправки: если хотя бы один из них некорректен, не отправляется ни один.
+ * Затем каждый подзапрос списывает токен из корзины своего эндпоинта, как если бы он был отправлен отдельно:
+ * подзапросы сверх ограничения не отправляются и получают ответ со статусом 429. Остальные подзапросы
+ * одновременно отправляются на сервер через клиенты шлюза.
+ * Поддерживаются только GET запросы.
+ */
+@Slf4j
+@Service
+public class BatchService {
+
+    private final ItemClient itemClient;
+    private final BookingClient bookingClient;
+    private final RequestClient requestClient;
+    private final UserClient userClient;
+    private final RateLimitFilter rateLimitFilter;
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+
+    public BatchService(ItemClient itemClient,
+                        BookingClient bookingClient,
+                        RequestClient requestClient,
+                        UserClient userClient,
+                        RateLimitFilter rateLimitFilter,
+                        ObjectMapper objectMapper,
+                        @Value("${shareit.batch.max-size:20}") int maxSize) {
+        this.itemClient = itemClient;
+        this.bookingClient = bookingClient;
+        this.requestClient = requestClient;
+        this.userClient = userClient;
+        this.rateLimitFilter = rateLimitFilter;
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Проверяет и выполняет подзапросы.
+     *
+     * @param userId   ID пользователя
+     * @param requests подзапросы
+     * @return ответы на подзапросы в том же порядке, которые будут получены асинхронно
+     */
+    public CompletableFuture<List<SubResponseDto>> execute(long userId, List<SubRequestDto> requests) {
+        if (requests.size() > maxSize) {
+            throw new ValidationException("Пакет не может содержать больше " + maxSize + " подзапросов");
+        }
+        List<Supplier<CompletableFuture<ResponseEntity<Object>>>> calls = new ArrayList<>(requests.size());
+        for (SubRequestDto request : requests) {
+            calls.add(route(userId, request));
+        }
+
+        List<CompletableFuture<SubResponseDto>> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < calls.size(); i++) {
+            String id = requests.get(i).getId();
+            if (rateLimitFilter.tryAcquire(userId, path(requests.get(i))) > 0) {
+                responses.add(CompletableFuture.completedFuture(new SubResponseDto(id,
+                        HttpStatus.TOO_MANY_REQUESTS.value(), toJson(new ErrorResponse("Превышена частота запросов")))));
+                continue;
+            }
+            responses.add(calls.get(i).get().handle((response, e) -> toSubResponse(id, response, e)));
+        }
+        return CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<SubResponseDto> result = new ArrayList<>(responses.size());
+                    for (CompletableFuture<SubResponseDto> response : responses) {
+                        result.add(response.join());
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Определяет метод клиента, который выполнит подзапрос.
+     *
+     * @param userId  ID пользователя
+     * @param request подзапрос
+     * @return вызов клиента
+     */
+    private Supplier<CompletableFuture<ResponseEntity<Object>>> route(long userId, SubRequestDto request) {
+        if (request.getMethod() != null && !"GET".equalsIgnoreCase(request.getMethod())) {
+            throw new ValidationException("Пакетный запрос поддерживает только GET подзапросы: " + request.getPath());
+        }
+        UriComponents uri = UriComponentsBuilder.fromUriString(request.getPath()).build();
+        List<String> segments = uri.getPathSegments();
+        MultiValueMap<String, String> params = uri.getQueryParams();
+        String resource = segments.isEmpty() ? "" : segments.get(0);
+        String next = segments.size() > 1 ? segments.get(1) : null;
+        if (segments.size() > 2) {
+            throw unsupported(request);
+        }
+
+        switch (resource) {
+            case "items":
+                if (next == null) {
+                    int from = from(params);
+                    int size = size(params);
+                    return () -> itemClient.getAll(userId, from, size);
+                }
+                if ("search".equals(next)) {
+                    String text = param(params, "text");
+                    if (text == null) {
+                        throw new ValidationException("Не указан параметр text: " + request.getPath());
+                    }
+                    int from = from(params);
+                    int size = size(params);
+                    return () -> itemClient.searchItems(userId, text, from, size);
+                }
+                long itemId = id(next, request);
+                return () -> itemClient.get(userId, itemId, null);
+            case "bookings":
+                if (next == null || "owner".equals(next)) {
+                    BookingState state = state(params);
+                    int from = from(params);
+                    int size = size(params);
+                    String after = param(params, "after");
+                    return next == null
+                            ? () -> bookingClient.getBookings(userId, state, from, size, after)
+                            : () -> bookingClient.getAllOwner(userId, state, from, size, after);
+                }
+                long bookingId = id(next, request);
+                return () -> bookingClient.getBooking(userId, bookingId, null);
+            case "requests":
+                if (next == null) {
+                    return () -> requestClient.getUserRequests(userId);
+                }
+                if ("all".equals(next)) {
+                    int from = from(params);
+                    int size = size(params);
+                    String after = param(params, "after");
+                    return () -> requestClient.getAllRequests(userId, from, size, after);
+                }
+                long requestId = id(next, request);
+                return () -> requestClient.getRequestById(userId, requestId, null);
+            case "users":
+                if (next == null) {
+                    return userClient::getAll;
+                }
+                long id = id(next, request);
+                return () -> userClient.getById(id);
+            default:
+                throw unsupported(request);
+        }
+    }
+
+    private SubResponseDto toSubResponse(String id, ResponseEntity<Object> response, Throwable e) {
+        if (e != null) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            HttpStatus status = cause instanceof OverloadedException
+                    ? HttpStatus.SERVICE_UNAVAILABLE
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            log.warn("Подзапрос {} завершился ошибкой {}", id, cause.getMessage());
+            return new SubResponseDto(id, status.value(), toJson(new ErrorResponse(cause.getMessage())));
+        }
+        return new SubResponseDto(id, response.getStatusCodeValue(), toJson(response.getBody()));
+    }
+
+    /**
+     * Преобразует тело ответа в JSON. Тело в виде байтов разбирается как JSON, а если оно не является
+     * корректным JSON, например текстовое сообщение об ошибке, возвращается строкой.
+     */
+    private JsonNode toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        if (!(body instanceof byte[])) {
+            return objectMapper.valueToTree(body);
+        }
+        byte[] bytes = (byte[]) body;
+        try {
+            JsonNode node = objectMapper.reader()
+                    .with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+                    .readTree(bytes);
+            return node.isMissingNode() ? null : node;
+        } catch (IOException e) {
+            return TextNode.valueOf(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Возвращает путь подзапроса без параметров, по которому определяется эндпоинт ограничения частоты запросов.
+     */
+    private static String path(SubRequestDto request) {
+        List<String> segments = UriComponentsBuilder.fromUriString(request.getPath()).build().getPathSegments();
+        return "/" + String.join("/", segments);
+    }
+
+    private static String param(MultiValueMap<String, String> params, String name) {
+        String value = params.getFirst(name);
+        return value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static int from(MultiValueMap<String, String> params) {
+        int from = number(params, "from", 0);
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным");
+        }
+        return from;
+    }
+
+    private static int size(MultiValueMap<String, String> params) {
+        int size = number(params, "size", 10);
+        if (size < 1) {
+            throw new ValidationException("Параметр size должен быть положительным");
+        }
+        return size;
+    }
+
+    private static int number(MultiValueMap<String, String> params, String name, int defaultValue) {
+        String value = param(params, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректное значение параметра " + name + ": " + value);
+        }
+    }
+
+    private static BookingState state(MultiValueMap<String, String> params) {
+        String state = param(params, "state");
+        if (state == null) {
+            return BookingState.ALL;
+        }
+        return BookingState.from(state).orElseThrow(() -> new ValidationException("Unknown state: " + state));
+    }
+
+    private static long id(String segment, SubRequestDto request) {
+        try {
+            return Long.parseLong(segment);
+        } catch (NumberFormatException e) {
+            throw unsupported(request);
+        }
+    }
+
+    private static ValidationException unsupported(SubRequestDto request) {
+        return new ValidationException("Неподдерживаемый подзапрос: " + request.getPath());
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.batch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+
+/**
+ * Подзапрос пакетного запроса: GET запрос к одному из эндпоинтов шлюза, например /items/1 или /bookings/owner?state=ALL.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SubRequestDto {
+
+    private String id;
+
+    private String method;
+
+    @NotBlank
+    private String path;
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.batch.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ответ на подзапрос пакетного запроса. Тело ответа сервера вставляется в JSON как есть,
+ * если оно является корректным JSON, иначе - в виде строки.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SubResponseDto {
+
+    private String id;
+
+    private int status;
+
+    private JsonNode body;
+}
@@ -1,17 +1,21 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.client.AdaptiveConcurrencyLimiter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.EventStreamClient;
+import ru.practicum.shareit.client.ServerBalancer;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Класс BookingClient является клиентом для взаимодействия с API бронирования.
@@ -22,12 +26,23 @@ import java.util.Map;
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final EventStreamClient eventStreamClient;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public BookingClient(ServerBalancer balancer, AdaptiveConcurrencyLimiter limiter, HttpAsyncClient httpClient,
+                         ObjectMapper objectMapper, EventStreamClient eventStreamClient) {
+        super(API_PREFIX, balancer, limiter, httpClient, objectMapper);
+        this.eventStreamClient = eventStreamClient;
+    }
+
+    /**
+     * Метод subscribe открывает поток событий изменения статуса бронирований пользователя.
+     *
+     * @param userId ID пользователя
+     * @return поток server-sent events сервера
+     */
+    public ResponseEntity<ResponseBodyEmitter> subscribe(long userId) {
+        return eventStreamClient.stream(API_PREFIX + "/events", userId);
     }
 
     /**
@@ -37,14 +52,11 @@ public class BookingClient extends BaseClient {
      * @param state  состояние бронирования
      * @param from   -
      * @param size   размер
-     * @return объект ResponseEntity с результатом запроса
+     * @param after  курсор последнего полученного бронирования или null
+     * @return результат запроса, который будет получен асинхронно
      */
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, String after) {
+        return get(pagePath("", after), userId, pageParameters(state, from, size, after));
     }
 
     /**
@@ -52,21 +64,22 @@ public class BookingClient extends BaseClient {
      *
      * @param userId     ID пользователя
      * @param requestDto объект BookItemRequestDto
-     * @return объект ResponseEntity с результатом запроса
+     * @return результат запроса, который будет получен асинхронно
      */
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
     /**
      * Метод getBooking выполняет запрос на получение бронирования по его ID.
      *
-     * @param userId    ID пользователя
-     * @param bookingId ID бронирования
-     * @return объект ResponseEntity с результатом запроса
+     * @param userId      ID пользователя
+     * @param bookingId   ID бронирования
+     * @param ifNoneMatch значение заголовка If-None-Match или null
+     * @return результат запроса, который будет получен асинхронно
      */
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, Long bookingId, String ifNoneMatch) {
+        return get("/" + bookingId, userId, null, ifNoneMatch);
     }
 
     /**
@@ -76,14 +89,11 @@ public class BookingClient extends BaseClient {
      * @param state   состояние бронирования
      * @param from    -
      * @param size    размер
-     * @return объект ResponseEntity с результатом запроса
+     * @param after   курсор последнего полученного бронирования или null
+     * @return результат запроса, который будет получен асинхронно
      */
-    public ResponseEntity<Object> getAllOwner(long ownerId, BookingState state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size);
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAllOwner(long ownerId, BookingState state, int from, int size, String after) {
+        return get(pagePath("/owner", after), ownerId, pageParameters(state, from, size, after));
     }
 
     /**
@@ -92,10 +102,42 @@ public class BookingClient extends BaseClient {
      * @param userId     ID пользователя
      * @param bookingId  ID бронирования
      * @param approved   флаг подтверждения
-     * @return объект ResponseEntity с результатом запроса
+     * @return результат запроса, который будет получен асинхронно
      */
-    public ResponseEntity<Object> update(long userId, long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> update(long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Метод pagePath формирует путь запроса списка бронирований.
+     *
+     * @param prefix префикс пути
+     * @param after  курсор последнего полученного бронирования или null
+     * @return путь запроса
+     */
+    private static String pagePath(String prefix, String after) {
+        String path = prefix + "?state={state}&from={from}&size={size}";
+        return after == null ? path : path + "&after={after}";
+    }
+
+    /**
+     * Метод pageParameters формирует параметры запроса списка бронирований.
+     *
+     * @param state состояние бронирования
+     * @param from  -
+     * @param size  размер
+     * @param after курсор последнего полученного бронирования или null
+     * @return параметры запроса
+     */
+    private static Map<String, Object> pageParameters(BookingState state, int from, int size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
+    }
+}
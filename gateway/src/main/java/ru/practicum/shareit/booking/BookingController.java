@@ -2,10 +2,12 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.user.markers.Create;
@@ -14,6 +16,7 @@ import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.Constants.USER_HEADER;
 
@@ -37,16 +40,18 @@ public class BookingController {
      * @param stateParam состояние бронирования
      * @param from       -
      * @param size       размер
-     * @return объект ResponseEntity с результатом запроса
+     * @param after      курсор последнего полученного бронирования
+     * @return результат запроса, который будет получен асинхронно
      */
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader(USER_HEADER) long userId,
-                                              @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getBookings(@RequestHeader(USER_HEADER) long userId,
+                                                                 @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+                                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                 @RequestParam(name = "after", required = false) String after) {
         BookingState state = BookingState.from(stateParam).orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}", stateParam, userId, from, size, after);
+        return bookingClient.getBookings(userId, state, from, size, after);
     }
 
     /**
@@ -54,27 +59,43 @@ public class BookingController {
      *
      * @param userId     ID пользователя
      * @param requestDto объект BookItemRequestDto
-     * @return объект ResponseEntity с результатом запроса
+     * @return результат запроса, который будет получен асинхронно
      */
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader(USER_HEADER) long userId,
-                                           @Validated(Create.class) @RequestBody @Valid BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader(USER_HEADER) long userId,
+                                                              @Validated(Create.class) @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    /**
+     * Метод subscribe открывает поток событий изменения статуса бронирований пользователя
+     * вместо периодических запросов бронирований.
+     *
+     * @param userId ID пользователя
+     * @return поток server-sent events
+     */
+    @GetMapping("/events")
+    public ResponseEntity<ResponseBodyEmitter> subscribe(@RequestHeader(USER_HEADER) long userId) {
+        log.info("Subscribe to booking events, userId={}", userId);
+        return bookingClient.subscribe(userId);
+    }
+
     /**
      * Метод getBooking выполняет запрос на получение бронирования по его ID.
      *
-     * @param userId    ID пользователя
-     * @param bookingId ID бронирования
-     * @return объект ResponseEntity с результатом запроса
+     * @param userId      ID пользователя
+     * @param bookingId   ID бронирования
+     * @param ifNoneMatch значение заголовка If-None-Match, передаваемое серверу без изменений
+     * @return результат запроса, который будет получен асинхронно
      */
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(USER_HEADER) long userId,
-                                             @PathVariable Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader(USER_HEADER) long userId,
+                                                                @PathVariable Long bookingId,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                                String ifNoneMatch) {
         log.info("Get booking {}, userId={}", bookingId, userId);
-        return bookingClient.getBooking(userId, bookingId);
+        return bookingClient.getBooking(userId, bookingId, ifNoneMatch);
     }
 
     /**
@@ -84,17 +105,19 @@ public class BookingController {
      * @param bookingState состояние бронирования
      * @param from         -
      * @param size         размер
-     * @return объект ResponseEntity с результатом запроса
+     * @param after        курсор последнего полученного бронирования
+     * @return результат запроса, который будет получен асинхронно
      */
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllOwner(@RequestHeader(USER_HEADER) Long ownerId,
-                                              @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
-                                              @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAllOwner(@RequestHeader(USER_HEADER) Long ownerId,
+                                                                 @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
+                                                                 @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                                                 @RequestParam(value = "after", required = false) String after) {
         BookingState state = BookingState.from(bookingState)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + bookingState));
-        log.info("GET запрос на получение списка всех бронирований c state {}, userId={}, from={}, size={}", bookingState, ownerId, from, size);
-        return bookingClient.getAllOwner(ownerId, state, from, size);
+        log.info("GET запрос на получение списка всех бронирований c state {}, userId={}, from={}, size={}, after={}", bookingState, ownerId, from, size, after);
+        return bookingClient.getAllOwner(ownerId, state, from, size, after);
     }
 
     /**
@@ -103,12 +126,12 @@ public class BookingController {
      * @param userId    ID пользователя
      * @param bookingId ID бронирования
      * @param approved  флаг подтверждения
-     * @return объект ResponseEntity с результатом запроса
+     * @return результат запроса, который будет получен асинхронно
      */
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateStatus(@RequestHeader(USER_HEADER) Long userId,
-                                               @PathVariable("bookingId") Long bookingId,
-                                               @RequestParam("approved") Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> updateStatus(@RequestHeader(USER_HEADER) Long userId,
+                                                                  @PathVariable("bookingId") Long bookingId,
+                                                                  @RequestParam("approved") Boolean approved) {
         log.info("PATCH запрос на обновление статуса бронирования вещи : {} от владельца с id: {}", bookingId, userId);
         return bookingClient.update(userId, bookingId, approved);
     }
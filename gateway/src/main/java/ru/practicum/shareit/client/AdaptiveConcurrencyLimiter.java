@@ -0,0 +1,167 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Класс AdaptiveConcurrencyLimiter, ограничивающий количество одновременных запросов шлюза к серверу.
+ * Ограничение задается отдельно для каждого маршрута (префикса API) и подстраивается под время ответа сервера:
+ * пока время ответа близко к обычному, ограничение растет, а когда сервер начинает отвечать медленнее,
+ * ограничение уменьшается пропорционально замедлению. При ошибках соединения, таймаутах и ответах 503
+ * ограничение уменьшается на 10%. Запросы сверх ограничения сразу отклоняются.
+ * Границы ограничения можно задать для маршрута свойствами
+ * shareit-server.limiter.{маршрут}.min-limit и shareit-server.limiter.{маршрут}.max-limit.
+ * Текущее ограничение, количество выполняемых и отклоненных запросов публикуются в метриках gateway.concurrency.*
+ * с тегом route.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final String PREFIX = "shareit-server.limiter.";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final long retryAfterSeconds;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(Environment environment,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${shareit-server.limiter.initial-limit:50}") int initialLimit,
+                                      @Value("${shareit-server.limiter.min-limit:10}") int minLimit,
+                                      @Value("${shareit-server.limiter.max-limit:500}") int maxLimit,
+                                      @Value("${shareit-server.limiter.smoothing:0.2}") double smoothing,
+                                      @Value("${shareit-server.limiter.retry-after:1s}") Duration retryAfter) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    /**
+     * Возвращает ограничение для маршрута, создавая его при первом обращении.
+     *
+     * @param apiPrefix префикс API клиента, например /items
+     * @return ограничение маршрута
+     */
+    public Route route(String apiPrefix) {
+        return routes.computeIfAbsent(apiPrefix, this::createRoute);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private Route createRoute(String apiPrefix) {
+        String name = apiPrefix.startsWith("/") ? apiPrefix.substring(1) : apiPrefix;
+        int routeMin = environment.getProperty(PREFIX + name + ".min-limit", Integer.class, minLimit);
+        int routeMax = environment.getProperty(PREFIX + name + ".max-limit", Integer.class, maxLimit);
+        Route route = new Route(routeMin, routeMax, Math.max(routeMin, Math.min(routeMax, initialLimit)), smoothing,
+                Counter.builder("gateway.concurrency.rejected").tag("route", name)
+                        .description("Запросы, отклоненные из-за ограничения одновременных запросов")
+                        .register(meterRegistry));
+        Gauge.builder("gateway.concurrency.limit", route, Route::getLimit).tag("route", name)
+                .description("Текущее ограничение одновременных запросов к серверу")
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", route, Route::getInFlight).tag("route", name)
+                .description("Выполняемые запросы к серверу")
+                .register(meterRegistry);
+        return route;
+    }
+
+    /**
+     * Ограничение одновременных запросов одного маршрута.
+     */
+    public static class Route {
+        private static final double DROP_FACTOR = 0.9;
+        private static final double SHORT_RTT_WEIGHT = 0.1;
+        private static final double LONG_RTT_WEIGHT = 0.01;
+
+        private final int minLimit;
+        private final int maxLimit;
+        private final double smoothing;
+        private final Counter rejected;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile double limit;
+        private double shortRtt;
+        private double longRtt;
+
+        private Route(int minLimit, int maxLimit, int initialLimit, double smoothing, Counter rejected) {
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.limit = initialLimit;
+            this.smoothing = smoothing;
+            this.rejected = rejected;
+        }
+
+        /**
+         * Занимает место для запроса, если ограничение не достигнуто.
+         * После получения ответа необходимо вызвать метод release.
+         *
+         * @return true, если запрос можно отправлять
+         */
+        public boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= (int) limit) {
+                    rejected.increment();
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Освобождает место и пересчитывает ограничение по времени ответа.
+         *
+         * @param rttNanos время ответа сервера в наносекундах
+         * @param dropped  true, если сервер не ответил вовремя, был недоступен или ответил 503
+         */
+        public void release(long rttNanos, boolean dropped) {
+            int current = inFlight.getAndDecrement();
+            synchronized (this) {
+                if (dropped) {
+                    limit = Math.max(minLimit, limit * DROP_FACTOR);
+                    return;
+                }
+                shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_RTT_WEIGHT;
+                longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+                if (longRtt > shortRtt * 2) {
+                    // Сервер стал отвечать заметно быстрее: быстрее приближаем обычное время ответа к текущему.
+                    longRtt *= 0.95;
+                }
+                if (current < limit / 2) {
+                    // Ограничение не используется полностью, задержка не говорит о его величине.
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+                double newLimit = limit * gradient + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+            }
+        }
+
+        public double getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Стратегия выбора экземпляра сервера для очередного запроса.
+ */
+public enum BalancingStrategy {
+    /**
+     * Экземпляры выбираются по очереди.
+     */
+    ROUND_ROBIN {
+        @Override
+        ServerEndpoint choose(List<ServerEndpoint> endpoints, AtomicInteger counter) {
+            return endpoints.get(Math.floorMod(counter.getAndIncrement(), endpoints.size()));
+        }
+    },
+    /**
+     * Выбирается экземпляр с наименьшим количеством запросов, ожидающих ответа.
+     */
+    LEAST_OUTSTANDING {
+        @Override
+        ServerEndpoint choose(List<ServerEndpoint> endpoints, AtomicInteger counter) {
+            int offset = Math.floorMod(counter.getAndIncrement(), endpoints.size());
+            ServerEndpoint best = null;
+            for (int i = 0; i < endpoints.size(); i++) {
+                ServerEndpoint endpoint = endpoints.get((offset + i) % endpoints.size());
+                if (best == null || endpoint.getOutstanding() < best.getOutstanding()) {
+                    best = endpoint;
+                }
+            }
+            return best;
+        }
+    },
+    /**
+     * Из двух случайных экземпляров выбирается тот, у которого меньше запросов, ожидающих ответа.
+     */
+    POWER_OF_TWO {
+        @Override
+        ServerEndpoint choose(List<ServerEndpoint> endpoints, AtomicInteger counter) {
+            int size = endpoints.size();
+            if (size == 1) {
+                return endpoints.get(0);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            int second = random.nextInt(size - 1);
+            if (second >= first) {
+                second++;
+            }
+            ServerEndpoint a = endpoints.get(first);
+            ServerEndpoint b = endpoints.get(second);
+            return b.getOutstanding() < a.getOutstanding() ? b : a;
+        }
+    };
+
+    /**
+     * Выбирает экземпляр сервера из непустого списка.
+     *
+     * @param endpoints доступные экземпляры
+     * @param counter   счетчик запросов, общий для всех вызовов
+     * @return выбранный экземпляр
+     */
+    abstract ServerEndpoint choose(List<ServerEndpoint> endpoints, AtomicInteger counter);
+}
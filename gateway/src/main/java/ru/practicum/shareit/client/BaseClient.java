@@ -1,32 +1,85 @@
 package ru.practicum.shareit.client;
 
-import org.springframework.http.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.client.HttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+import ru.practicum.shareit.exceptions.OverloadedException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static ru.practicum.shareit.Constants.NEXT_CURSOR_HEADER;
 import static ru.practicum.shareit.Constants.USER_HEADER;
 
 /**
  * Класс BaseClient, представляющий базовый клиент для отправки HTTP-запросов.
+ * Запросы отправляются неблокирующим HTTP-клиентом: методы сразу возвращают CompletableFuture,
+ * и поток обработки запроса не занят, пока сервер формирует ответ.
+ * Ответы сервера не разбираются: байты тела передаются клиенту как есть.
+ * Одинаковые одновременные GET запросы одного пользователя объединяются в один запрос к серверу.
  */
 public class BaseClient {
-    protected final RestTemplate rest;
+    private static final List<String> FORWARDED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.ETAG,
+            HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.LOCATION,
+            NEXT_CURSOR_HEADER);
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final ServerBalancer balancer;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final AdaptiveConcurrencyLimiter.Route route;
+    private final HttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<ResponseEntity<Object>>> inFlightGets = new ConcurrentHashMap<>();
+
+    public BaseClient(String apiPrefix, ServerBalancer balancer, AdaptiveConcurrencyLimiter limiter,
+                      HttpAsyncClient httpClient, ObjectMapper objectMapper) {
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(apiPrefix);
+        this.balancer = balancer;
+        this.limiter = limiter;
+        this.route = limiter.route(apiPrefix);
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Отправляет GET запрос по указанному пути с пустыми параметрами.
      *
      * @param path Путь запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> get(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
@@ -35,9 +88,9 @@ public class BaseClient {
      *
      * @param path   Путь запроса.
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
@@ -47,10 +100,49 @@ public class BaseClient {
      * @param path       Путь запроса.
      * @param userId     Идентификатор пользователя.
      * @param parameters Параметры запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return get(path, userId, parameters, null);
+    }
+
+    /**
+     * Отправляет условный GET запрос по указанному пути с указанным идентификатором пользователя и параметрами.
+     * Заголовок If-None-Match передается серверу без изменений, ответ 304 возвращается клиенту как есть.
+     * Если такой же запрос от того же пользователя уже отправлен и ответ еще не получен,
+     * новый запрос на сервер не отправляется, а возвращается ответ на уже отправленный.
+     *
+     * @param path        Путь запроса.
+     * @param userId      Идентификатор пользователя.
+     * @param parameters  Параметры запроса.
+     * @param ifNoneMatch Значение заголовка If-None-Match.
+     * @return Ответ сервера, который будет получен асинхронно.
+     */
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters,
+                                                          @Nullable String ifNoneMatch) {
+        URI uri = expand(path, parameters);
+        String key = userId + " " + ifNoneMatch + " " + uri;
+        CompletableFuture<ResponseEntity<Object>> response = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> inFlight = inFlightGets.putIfAbsent(key, response);
+        if (inFlight != null) {
+            return inFlight.copy();
+        }
+
+        CompletableFuture<ResponseEntity<Object>> upstream;
+        try {
+            upstream = makeAndSendRequest(HttpMethod.GET, uri, userId, ifNoneMatch, null);
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((result, e) -> {
+            inFlightGets.remove(key, response);
+            if (e != null) {
+                response.completeExceptionally(e);
+            } else {
+                response.complete(result);
+            }
+        });
+        return response.copy();
     }
 
     /**
@@ -59,9 +151,9 @@ public class BaseClient {
      * @param path Путь запроса.
      * @param body Тело запроса.
      * @param <T>  Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
@@ -72,9 +164,9 @@ public class BaseClient {
      * @param userId Идентификатор пользователя.
      * @param body   Тело запроса.
      * @param <T>    Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
@@ -86,10 +178,10 @@ public class BaseClient {
      * @param parameters Параметры запроса.
      * @param body       Тело запроса.
      * @param <T>        Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, expand(path, parameters), userId, null, body);
     }
 
     /**
@@ -99,9 +191,9 @@ public class BaseClient {
      * @param userId Идентификатор пользователя.
      * @param body   Тело запроса.
      * @param <T>    Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
@@ -113,10 +205,10 @@ public class BaseClient {
      * @param parameters Параметры запроса.
      * @param body       Тело запроса.
      * @param <T>        Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PUT, expand(path, parameters), userId, null, body);
     }
 
     /**
@@ -125,9 +217,9 @@ public class BaseClient {
      * @param path Путь запроса.
      * @param body Тело запроса.
      * @param <T>  Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
@@ -136,9 +228,9 @@ public class BaseClient {
      *
      * @param path   Путь запроса.
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
@@ -149,9 +241,9 @@ public class BaseClient {
      * @param userId Идентификатор пользователя.
      * @param body   Тело запроса.
      * @param <T>    Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
@@ -163,19 +255,19 @@ public class BaseClient {
      * @param parameters Параметры запроса.
      * @param body       Тело запроса.
      * @param <T>        Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
-        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    protected <T> CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, expand(path, parameters), userId, null, body);
     }
 
     /**
      * Отправляет DELETE запрос по указанному пути с пустыми параметрами.
      *
      * @param path Путь запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
@@ -184,9 +276,9 @@ public class BaseClient {
      *
      * @param path   Путь запроса.
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
@@ -196,72 +288,162 @@ public class BaseClient {
      * @param path       Путь запроса.
      * @param userId     Идентификатор пользователя.
      * @param parameters Параметры запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, expand(path, parameters), userId, null, null);
     }
 
     /**
      * Создает и отправляет HTTP-запрос с указанными параметрами.
+     * Экземпляр сервера выбирается балансировщиком. Если ограничение одновременных запросов
+     * маршрута достигнуто, запрос не отправляется и ответ завершается исключением OverloadedException.
      *
-     * @param method     HTTP-метод запроса.
-     * @param path       Путь запроса.
-     * @param userId     Идентификатор пользователя.
-     * @param parameters Параметры запроса.
-     * @param body       Тело запроса.
-     * @param <T>        Тип тела запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param method HTTP-метод запроса.
+     * @param uri    Адрес запроса относительно адреса сервера.
+     * @param userId      Идентификатор пользователя.
+     * @param ifNoneMatch Значение заголовка If-None-Match.
+     * @param body        Тело запроса.
+     * @param <T>         Тип тела запроса.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, URI uri, Long userId,
+                                                                             @Nullable String ifNoneMatch, @Nullable T body) {
+        HttpRequestBase request = createRequest(method, uri);
+        request.setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (userId != null) {
+            request.setHeader(USER_HEADER, String.valueOf(userId));
+        }
+        if (ifNoneMatch != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (body != null && request instanceof HttpEntityEnclosingRequestBase) {
+            ((HttpEntityEnclosingRequestBase) request).setEntity(
+                    new ByteArrayEntity(writeBody(body), ContentType.APPLICATION_JSON));
+        }
 
-        ResponseEntity<Object> shareitServerResponse;
+        if (!route.tryAcquire()) {
+            return CompletableFuture.failedFuture(new OverloadedException(
+                    "Сервер перегружен, повторите запрос позже", limiter.getRetryAfterSeconds()));
+        }
+        long started = System.nanoTime();
+        CompletableFuture<ResponseEntity<Object>> result = new CompletableFuture<>();
+        result.whenComplete((response, e) -> route.release(System.nanoTime() - started,
+                e != null || response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE));
+
+        ServerEndpoint endpoint = balancer.start();
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            request.setURI(URI.create(endpoint.getUrl() + uri));
+            execute(request, endpoint, result);
+        } catch (RuntimeException e) {
+            balancer.finish(endpoint, true);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Отправляет запрос выбранному экземпляру сервера и передает ответ в result.
+     *
+     * @param request  Запрос.
+     * @param endpoint Экземпляр сервера.
+     * @param result   Ответ шлюза, который будет получен асинхронно.
+     */
+    private void execute(HttpRequestBase request, ServerEndpoint endpoint, CompletableFuture<ResponseEntity<Object>> result) {
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(HttpResponse response) {
+                balancer.finish(endpoint, response.getStatusLine().getStatusCode() < 500);
+                try {
+                    result.complete(prepareGatewayResponse(response));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                balancer.finish(endpoint, false);
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                balancer.finish(endpoint, true);
+                result.completeExceptionally(new CancellationException("Запрос к серверу отменен: " + request.getURI()));
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        });
+    }
+
+    /**
+     * Формирует адрес запроса из пути и параметров.
+     *
+     * @param path       Путь запроса.
+     * @param parameters Параметры запроса.
+     * @return Адрес запроса.
+     */
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null ? uriBuilderFactory.expand(path, parameters) : uriBuilderFactory.expand(path);
+    }
+
+    /**
+     * Создает HTTP-запрос клиента для указанного метода.
+     *
+     * @param method HTTP-метод запроса.
+     * @param uri    Адрес запроса.
+     * @return Объект запроса.
+     */
+    private static HttpRequestBase createRequest(HttpMethod method, URI uri) {
+        switch (method) {
+            case POST:
+                return new HttpPost(uri);
+            case PUT:
+                return new HttpPut(uri);
+            case PATCH:
+                return new HttpPatch(uri);
+            case DELETE:
+                return new HttpDelete(uri);
+            default:
+                return new HttpGet(uri);
         }
-        return prepareGatewayResponse(shareitServerResponse);
     }
 
     /**
-     * Возвращает заголовки по умолчанию.
+     * Сериализует тело запроса в JSON.
      *
-     * @param userId Идентификатор пользователя.
-     * @return Объект HttpHeaders с заголовками по умолчанию.
+     * @param body Тело запроса.
+     * @return Тело запроса в виде массива байт.
      */
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set(USER_HEADER, String.valueOf(userId));
+    private byte[] writeBody(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-        return headers;
     }
 
     /**
      * Подготавливает ответ шлюза на запрос.
+     * Тело ответа сервера передается клиенту без разбора JSON вместе с заголовками из FORWARDED_HEADERS.
      *
      * @param response Ответ сервера.
      * @return Объект ResponseEntity с ответом шлюза.
+     * @throws IOException если не удалось прочитать тело ответа.
      */
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static ResponseEntity<Object> prepareGatewayResponse(HttpResponse response) throws IOException {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusLine().getStatusCode());
+        for (String name : FORWARDED_HEADERS) {
+            Header header = response.getFirstHeader(name);
+            if (header != null) {
+                responseBuilder.header(name, header.getValue());
+            }
         }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        HttpEntity entity = response.getEntity();
+        byte[] body = entity == null ? null : EntityUtils.toByteArray(entity);
+        if (body == null || body.length == 0) {
+            return responseBuilder.build();
         }
-
-        return responseBuilder.build();
+        return responseBuilder.body(body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Класс ConnectionPoolMonitor, обслуживающий пул соединений шлюза с сервером.
+ * Периодически закрывает соединения с истекшим сроком жизни и соединения, простаивающие дольше
+ * shareit-server.idle-timeout, и публикует состояние пула в метрике http.client.connections
+ * с тегом state=leased|pending|available.
+ */
+@Slf4j
+@Component
+public class ConnectionPoolMonitor implements MeterBinder {
+
+    private static final long EVICTION_INTERVAL_SECONDS = 5;
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shareit-connection-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConnectionPoolMonitor(PoolingNHttpClientConnectionManager connectionManager,
+                                 @Value("${shareit-server.idle-timeout:30s}") Duration idleTimeout) {
+        this.connectionManager = connectionManager;
+        long idleMillis = idleTimeout.toMillis();
+        evictor.scheduleWithFixedDelay(() -> {
+            try {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось закрыть простаивающие соединения с сервером", e);
+            }
+        }, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "leased", PoolStats::getLeased);
+        gauge(registry, "pending", PoolStats::getPending);
+        gauge(registry, "available", PoolStats::getAvailable);
+        Gauge.builder("http.client.connections.max", connectionManager, PoolingNHttpClientConnectionManager::getMaxTotal)
+                .description("Максимальное число соединений с сервером")
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("http.client.connections", connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Соединения шлюза с сервером")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+}
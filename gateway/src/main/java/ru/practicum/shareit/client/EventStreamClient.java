@@ -0,0 +1,262 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.AsyncByteConsumer;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.practicum.shareit.Constants.USER_HEADER;
+
+/**
+ * Класс EventStreamClient, передающий клиентам потоки server-sent events сервера.
+ * События рассылаются внутри процесса каждого экземпляра сервера, поэтому поток открывается ко всем доступным
+ * экземплярам, а их события объединяются в один поток для клиента. События передаются целиком и без разбора,
+ * по мере поступления. Когда любой из потоков сервера завершается, поток клиента тоже завершается,
+ * и клиент переподключается.
+ * Потоки используют отдельный HTTP-клиент, чтобы долгие соединения не занимали общий пул и не влияли
+ * на балансировку и ограничение одновременных запросов. Количество одновременных потоков ограничено
+ * свойством shareit-server.stream.max-streams, сверх него клиенту отвечают 503.
+ */
+@Slf4j
+@Component
+public class EventStreamClient {
+
+    private final ServerBalancer balancer;
+    private final CloseableHttpAsyncClient httpClient;
+    private final int maxStreams;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final AtomicInteger streams = new AtomicInteger();
+    private final Counter rejected;
+
+    public EventStreamClient(ServerBalancer balancer,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit-server.stream.max-streams:1000}") int maxStreams,
+                             @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+                             @Value("${shareit-server.stream.read-timeout:60s}") Duration readTimeout,
+                             @Value("${shareit-server.stream.timeout:30m}") Duration timeout,
+                             @Value("${shareit-server.limiter.retry-after:1s}") Duration retryAfter) {
+        this.balancer = balancer;
+        this.maxStreams = maxStreams;
+        this.timeoutMillis = timeout.toMillis();
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.httpClient = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(IOReactorConfig.custom()
+                        .setConnectTimeout((int) connectTimeout.toMillis())
+                        .setSoTimeout((int) readTimeout.toMillis())
+                        .setTcpNoDelay(true)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) connectTimeout.toMillis())
+                        .setSocketTimeout((int) readTimeout.toMillis())
+                        .build())
+                .setMaxConnTotal(maxStreams * balancer.availableEndpoints().size())
+                .setMaxConnPerRoute(maxStreams)
+                .build();
+        this.httpClient.start();
+        this.rejected = Counter.builder("gateway.streams.rejected")
+                .description("Потоки событий, отклоненные из-за ограничения количества потоков")
+                .register(meterRegistry);
+        Gauge.builder("gateway.streams.active", streams, AtomicInteger::get)
+                .description("Открытые потоки событий")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открывает поток событий сервера по указанному пути от имени пользователя.
+     * Если сервер отвечает ошибкой, клиенту один раз отправляется событие error с телом первого ответа с ошибкой,
+     * даже если ошибкой ответили несколько экземпляров.
+     *
+     * @param path   путь относительно адреса сервера, например /bookings/events
+     * @param userId ID пользователя
+     * @return поток событий или ответ 503, если открыто слишком много потоков
+     */
+    public ResponseEntity<ResponseBodyEmitter> stream(String path, long userId) {
+        if (streams.incrementAndGet() > maxStreams) {
+            streams.decrementAndGet();
+            rejected.increment();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        Stream stream = new Stream(emitter);
+        emitter.onCompletion(stream::close);
+        emitter.onTimeout(stream::close);
+        emitter.onError(e -> stream.close());
+        for (ServerEndpoint endpoint : balancer.availableEndpoints()) {
+            HttpGet request = new HttpGet(endpoint.getUrl() + path);
+            request.setHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+            request.setHeader(USER_HEADER, String.valueOf(userId));
+            stream.upstreams.add(httpClient.execute(HttpAsyncMethods.create(request), new Upstream(stream),
+                    stream.callback));
+        }
+        if (stream.closed.get()) {
+            // Клиент отключился, пока открывались потоки сервера: закрываем и открытые позже.
+            stream.upstreams.forEach(upstream -> upstream.cancel(true));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noCache())
+                .body(emitter);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Поток клиента, объединяющий потоки всех экземпляров сервера.
+     */
+    private class Stream {
+        private final ResponseBodyEmitter emitter;
+        private final List<Future<Void>> upstreams = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean errorSent = new AtomicBoolean();
+        private final FutureCallback<Void> callback = new FutureCallback<>() {
+            @Override
+            public void completed(Void result) {
+                finish();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                log.debug("Поток событий сервера прерван: {}", e.getMessage());
+                finish();
+            }
+
+            @Override
+            public void cancelled() {
+                finish();
+            }
+        };
+
+        private Stream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void send(byte[] event) throws IOException {
+            try {
+                emitter.send(event, MediaType.TEXT_EVENT_STREAM);
+            } catch (IOException | IllegalStateException e) {
+                close();
+                throw e instanceof IOException ? (IOException) e : new IOException(e);
+            }
+        }
+
+        /**
+         * Отправляет клиенту событие error, если оно еще не было отправлено в этот поток.
+         */
+        private void sendError(String body) throws IOException {
+            if (errorSent.compareAndSet(false, true)) {
+                send(("event: error\ndata: " + body + "\n\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void finish() {
+            if (!closed.get()) {
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                streams.decrementAndGet();
+                for (Future<Void> upstream : upstreams) {
+                    upstream.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Поток одного экземпляра сервера. Байты накапливаются до конца события (пустой строки),
+     * чтобы события разных экземпляров не перемешивались.
+     */
+    private static class Upstream extends AsyncByteConsumer<Void> {
+        private final Stream stream;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private int status;
+
+        private Upstream(Stream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        protected void onResponseReceived(HttpResponse response) {
+            status = response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        protected void onByteReceived(ByteBuffer buf, IOControl ioControl) throws IOException {
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(bytes);
+            pending.write(bytes);
+            if (status != HttpStatus.OK.value()) {
+                return;
+            }
+            byte[] data = pending.toByteArray();
+            int end = lastEventEnd(data);
+            if (end > 0) {
+                stream.send(Arrays.copyOf(data, end));
+                pending.reset();
+                pending.write(data, end, data.length - end);
+            }
+        }
+
+        @Override
+        protected Void buildResult(HttpContext context) throws IOException {
+            if (status != HttpStatus.OK.value()) {
+                String body = pending.toString(StandardCharsets.UTF_8).replaceAll("[\\r\\n]+", " ");
+                stream.sendError(body);
+            }
+            return null;
+        }
+
+        /**
+         * Возвращает позицию после последней пустой строки, завершающей событие, или 0, если полного события нет.
+         */
+        private static int lastEventEnd(byte[] data) {
+            for (int i = data.length - 1; i > 0; i--) {
+                if (data[i] == '\n' && (data[i - 1] == '\n' || (i > 2 && data[i - 1] == '\r' && data[i - 2] == '\n'))) {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+    }
+}
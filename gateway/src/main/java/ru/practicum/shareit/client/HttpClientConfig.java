@@ -0,0 +1,69 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Класс HttpClientConfig, создающий общий неблокирующий HTTP-клиент для обращения шлюза к серверу.
+ * Ответы сервера обрабатываются потоками ввода-вывода клиента, поэтому количество одновременных
+ * запросов ограничено числом соединений, а не числом потоков.
+ * Все клиенты шлюза используют один пул соединений с ограничением на общее число соединений
+ * и на число соединений с одним сервером.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public PoolingNHttpClientConnectionManager shareitConnectionManager(
+            @Value("${shareit-server.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.read-timeout:10s}") Duration readTimeout) throws IOReactorException {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSoTimeout((int) readTimeout.toMillis())
+                .setTcpNoDelay(true)
+                .build();
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient shareitHttpClient(
+            PoolingNHttpClientConnectionManager connectionManager,
+            @Value("${shareit-server.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.read-timeout:10s}") Duration readTimeout,
+            @Value("${shareit-server.connection-request-timeout:1s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.keep-alive:30s}") Duration keepAlive) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .build();
+        long maxKeepAlive = keepAlive.toMillis();
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return duration > 0 ? Math.min(duration, maxKeepAlive) : maxKeepAlive;
+                })
+                .build();
+        client.start();
+        return client;
+    }
+}
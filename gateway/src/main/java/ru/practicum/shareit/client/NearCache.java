@@ -0,0 +1,307 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Класс NearCache, представляющий кэш ответов сервера в памяти шлюза.
+ * Кэшируются только успешные ответы на GET запросы отдельных ресурсов. Пока запись свежа, ответ
+ * возвращается без обращения к серверу. После истечения срока жизни запись с ETag проверяется условным
+ * запросом: на ответ 304 срок жизни продлевается, а тело повторно не передается. Записи без ETag
+ * по истечении срока жизни загружаются заново.
+ * Запись удаляется, как только этот же шлюз отправляет на сервер изменяющий ее запрос, и повторно
+ * после получения ответа. Изменения, сделанные через другие экземпляры шлюза, становятся видны
+ * не позднее истечения срока жизни записи.
+ * Срок жизни задается свойством shareit.near-cache.ttl и может быть переопределен для ресурса свойством
+ * shareit.near-cache.{ресурс}.ttl. Объем кэша ограничен суммарным размером записей в байтах, при переполнении
+ * вытесняются давно не использованные записи. Количество попаданий, промахов, проверок и вытеснений,
+ * доля попаданий, количество и размер записей публикуются в метриках cache.* с тегом cache=nearCache.
+ */
+@Component
+public class NearCache {
+
+    private static final String CACHE_NAME = "nearCache";
+    private static final String PREFIX = "shareit.near-cache.";
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Environment environment;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long maxWeight;
+    private final Map<String, Long> resourceTtls = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter evictions;
+    private long weight;
+    private long invalidations;
+
+    public NearCache(Environment environment,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.near-cache.enabled:true}") boolean enabled,
+                     @Value("${shareit.near-cache.ttl:5s}") Duration ttl,
+                     @Value("${shareit.near-cache.max-weight:16777216}") long maxWeight) {
+        this.environment = environment;
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxWeight = maxWeight;
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.revalidations = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "revalidated")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.invalidations", this, NearCache::invalidations).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, NearCache::hitRatio).tag("cache", CACHE_NAME)
+                .description("Доля ответов, возвращенных из кэша без обращения к серверу")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, NearCache::size).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.weight", this, NearCache::weight).tag("cache", CACHE_NAME).baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает ответ на GET запрос ресурса из кэша или получает его от сервера.
+     * Если значение If-None-Match клиента совпадает с ETag ответа, клиенту возвращается ответ 304.
+     *
+     * @param resource    путь ресурса относительно адреса сервера, например /items/1
+     * @param userId      ID пользователя, от имени которого запрашивается ресурс, или null,
+     *                    если ответ не зависит от пользователя
+     * @param ifNoneMatch значение заголовка If-None-Match клиента или null
+     * @param requireETag true, если кэшировать можно только ответы с ETag
+     * @param loader      отправляет GET запрос на сервер с переданным значением If-None-Match
+     * @return ответ, который будет получен асинхронно
+     */
+    public CompletableFuture<ResponseEntity<Object>> get(String resource,
+                                                         @Nullable Long userId,
+                                                         @Nullable String ifNoneMatch,
+                                                         boolean requireETag,
+                                                         Function<String, CompletableFuture<ResponseEntity<Object>>> loader) {
+        if (!enabled) {
+            return loader.apply(ifNoneMatch);
+        }
+        String key = resource + " " + userId;
+        long now = System.nanoTime();
+        Entry entry;
+        long stamp;
+        synchronized (entries) {
+            entry = entries.get(key);
+            stamp = invalidations;
+        }
+        if (entry != null && entry.expiresAt - now > 0) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry.toResponse(ifNoneMatch));
+        }
+
+        long ttl = ttl(resource);
+        if (entry != null && entry.eTag != null) {
+            Entry stale = entry;
+            return loader.apply(stale.eTag).thenApply(response -> {
+                if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    revalidations.increment();
+                    replace(key, stale, stale.renew(System.nanoTime() + ttl), stamp);
+                    return stale.toResponse(ifNoneMatch);
+                }
+                misses.increment();
+                return store(key, response, requireETag, ttl, stamp, ifNoneMatch);
+            });
+        }
+        misses.increment();
+        return loader.apply(null).thenApply(response -> store(key, response, requireETag, ttl, stamp, ifNoneMatch));
+    }
+
+    /**
+     * Отправляет изменяющий запрос, удаляя из кэша затронутые им ресурсы до отправки и после получения ответа.
+     * Повторное удаление не позволяет остаться в кэше ответу, полученному до того, как сервер применил изменение.
+     *
+     * @param request   изменяющий запрос
+     * @param resources пути затронутых ресурсов; путь, оканчивающийся на /, означает все ресурсы с этим префиксом
+     * @return ответ сервера, который будет получен асинхронно
+     */
+    public CompletableFuture<ResponseEntity<Object>> invalidating(
+            Supplier<CompletableFuture<ResponseEntity<Object>>> request, String... resources) {
+        invalidate(resources);
+        return request.get().whenComplete((response, e) -> invalidate(resources));
+    }
+
+    /**
+     * Удаляет из кэша ответы для всех пользователей на запросы указанных ресурсов.
+     *
+     * @param resources пути ресурсов; путь, оканчивающийся на /, означает все ресурсы с этим префиксом
+     */
+    public void invalidate(String... resources) {
+        synchronized (entries) {
+            invalidations++;
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> next = iterator.next();
+                if (affects(next.getKey(), resources)) {
+                    weight -= next.getValue().weight;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean affects(String key, String[] resources) {
+        for (String resource : resources) {
+            if (resource.endsWith("/") ? key.startsWith(resource) : key.startsWith(resource + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseEntity<Object> store(String key, ResponseEntity<Object> response, boolean requireETag, long ttl,
+                                         long stamp, @Nullable String ifNoneMatch) {
+        String eTag = response.getHeaders().getETag();
+        String cacheControl = response.getHeaders().getCacheControl();
+        if (response.getStatusCode() != HttpStatus.OK
+                || !(response.getBody() instanceof byte[])
+                || (requireETag && eTag == null)
+                || (cacheControl != null && cacheControl.contains("no-store"))) {
+            return conditional(response, eTag, ifNoneMatch);
+        }
+        byte[] body = (byte[]) response.getBody();
+        Entry entry = new Entry(body, response.getHeaders(), eTag, System.nanoTime() + ttl,
+                (long) body.length + key.length() * 2L + ENTRY_OVERHEAD);
+        synchronized (entries) {
+            if (stamp == invalidations && entry.weight <= maxWeight) {
+                put(key, entry);
+            }
+        }
+        return entry.toResponse(ifNoneMatch);
+    }
+
+    private void replace(String key, Entry stale, Entry renewed, long stamp) {
+        synchronized (entries) {
+            if (stamp == invalidations && entries.get(key) == stale) {
+                put(key, renewed);
+            }
+        }
+    }
+
+    private void put(String key, Entry entry) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+        entries.put(key, entry);
+        weight += entry.weight;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private long ttl(String resource) {
+        int end = resource.indexOf('/', 1);
+        String name = resource.substring(1, end < 0 ? resource.length() : end);
+        return resourceTtls.computeIfAbsent(name, ignored ->
+                environment.getProperty(PREFIX + name + ".ttl", Duration.class, Duration.ofNanos(ttlNanos)).toNanos());
+    }
+
+    private static ResponseEntity<Object> conditional(ResponseEntity<Object> response, @Nullable String eTag,
+                                                      @Nullable String ifNoneMatch) {
+        if (eTag == null || !matches(ifNoneMatch, eTag)) {
+            return response;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    /**
+     * Проверяет, содержит ли значение If-None-Match указанный ETag. Слабые ETag сравниваются как сильные,
+     * как того требует сравнение для GET запросов.
+     */
+    private static boolean matches(@Nullable String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || (value.startsWith("W/") ? value.substring(2) : value).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count() + revalidations.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private double invalidations() {
+        synchronized (entries) {
+            return invalidations;
+        }
+    }
+
+    private double size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    /**
+     * Сохраненный ответ сервера. Тело ответа не изменяется и передается клиентам без копирования.
+     */
+    private static class Entry {
+        private final byte[] body;
+        private final HttpHeaders headers;
+        private final String eTag;
+        private final long expiresAt;
+        private final long weight;
+
+        private Entry(byte[] body, HttpHeaders headers, @Nullable String eTag, long expiresAt, long weight) {
+            this.body = body;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.eTag = eTag;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+
+        private Entry renew(long expiresAt) {
+            return new Entry(body, headers, eTag, expiresAt, weight);
+        }
+
+        private ResponseEntity<Object> toResponse(@Nullable String ifNoneMatch) {
+            if (eTag != null && matches(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+    }
+}
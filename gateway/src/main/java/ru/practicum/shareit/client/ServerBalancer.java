@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Класс ServerBalancer, распределяющий запросы шлюза между экземплярами сервера из shareit-server.url
+ * (адреса через запятую) по стратегии shareit-server.balancing.
+ * Экземпляр, вернувший подряд shareit-server.ejection.failures ответов 5xx или ошибок соединения,
+ * исключается из балансировки на shareit-server.ejection.duration. Если исключены все экземпляры,
+ * запросы распределяются между всеми.
+ */
+@Component
+public class ServerBalancer implements MeterBinder {
+    private final List<ServerEndpoint> endpoints;
+    private final BalancingStrategy strategy;
+    private final int maxFailures;
+    private final long ejectionMillis;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ServerBalancer(@Value("${shareit-server.url}") List<String> urls,
+                          @Value("${shareit-server.balancing:ROUND_ROBIN}") BalancingStrategy strategy,
+                          @Value("${shareit-server.ejection.failures:5}") int maxFailures,
+                          @Value("${shareit-server.ejection.duration:30s}") Duration ejectionDuration) {
+        this.endpoints = urls.stream()
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(ServerEndpoint::new)
+                .collect(Collectors.toUnmodifiableList());
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Не указан адрес сервера shareit-server.url");
+        }
+        this.strategy = strategy;
+        this.maxFailures = maxFailures;
+        this.ejectionMillis = ejectionDuration.toMillis();
+    }
+
+    /**
+     * Выбирает экземпляр сервера для запроса и учитывает начало запроса к нему.
+     * После получения ответа необходимо вызвать метод finish.
+     *
+     * @return выбранный экземпляр
+     */
+    public ServerEndpoint start() {
+        ServerEndpoint endpoint = strategy.choose(availableEndpoints(), counter);
+        endpoint.requestStarted();
+        return endpoint;
+    }
+
+    /**
+     * Учитывает завершение запроса к экземпляру сервера.
+     *
+     * @param endpoint экземпляр, полученный методом start
+     * @param success  false, если сервер ответил 5xx или не удалось с ним соединиться
+     */
+    public void finish(ServerEndpoint endpoint, boolean success) {
+        endpoint.requestFinished(success, maxFailures, ejectionMillis);
+    }
+
+    /**
+     * Возвращает экземпляры сервера, не исключенные из балансировки, или все экземпляры, если исключены все.
+     *
+     * @return доступные экземпляры
+     */
+    public List<ServerEndpoint> availableEndpoints() {
+        if (endpoints.size() == 1) {
+            return endpoints;
+        }
+        long now = System.currentTimeMillis();
+        List<ServerEndpoint> available = new ArrayList<>(endpoints.size());
+        for (ServerEndpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            }
+        }
+        return available.isEmpty() ? endpoints : available;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ServerEndpoint endpoint : endpoints) {
+            Gauge.builder("shareit.server.outstanding", endpoint, ServerEndpoint::getOutstanding)
+                    .tag("endpoint", endpoint.getUrl())
+                    .description("Запросы к экземпляру сервера, ожидающие ответа")
+                    .register(registry);
+            Gauge.builder("shareit.server.available", endpoint,
+                            e -> e.isAvailable(System.currentTimeMillis()) ? 1 : 0)
+                    .tag("endpoint", endpoint.getUrl())
+                    .description("1, если экземпляр сервера участвует в балансировке")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Класс ServerEndpoint, представляющий один экземпляр сервера, на который шлюз распределяет запросы.
+ * Хранит количество запросов, ожидающих ответа, и состояние пассивной проверки работоспособности:
+ * после нескольких ошибок подряд экземпляр исключается из балансировки на заданное время.
+ */
+public class ServerEndpoint {
+    @Getter
+    private final String url;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil;
+
+    public ServerEndpoint(String url) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Возвращает количество запросов к экземпляру, ответ на которые еще не получен.
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Проверяет, что экземпляр не исключен из балансировки.
+     *
+     * @param now текущее время в миллисекундах
+     * @return true, если на экземпляр можно отправлять запросы
+     */
+    public boolean isAvailable(long now) {
+        return now >= ejectedUntil;
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Учитывает завершение запроса к экземпляру.
+     *
+     * @param success        признак успешного ответа
+     * @param maxFailures    количество ошибок подряд, после которого экземпляр исключается
+     * @param ejectionMillis время исключения в миллисекундах
+     */
+    void requestFinished(boolean success, int maxFailures, long ejectionMillis) {
+        outstanding.decrementAndGet();
+        if (success) {
+            consecutiveFailures.set(0);
+        } else if (consecutiveFailures.incrementAndGet() >= maxFailures) {
+            consecutiveFailures.set(0);
+            ejectedUntil = System.currentTimeMillis() + ejectionMillis;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -42,6 +44,20 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Обработчик исключения OverloadedException.
+     *
+     * @param e Исключение OverloadedException.
+     * @return Объект ResponseEntity с сообщением об ошибке и заголовком Retry-After.
+     */
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleOverloadedException(final OverloadedException e) {
+        log.warn("Получен статус 503 SERVICE_UNAVAILABLE {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
     /**
      * Обработчик других исключений.
      *
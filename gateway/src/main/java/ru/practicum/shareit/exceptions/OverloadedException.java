@@ -0,0 +1,17 @@
+package ru.practicum.shareit.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Класс исключения OverloadedException, представляющий отказ в обработке запроса из-за перегрузки.
+ * Клиенту предлагается повторить запрос через retryAfterSeconds секунд.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,32 +1,37 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AdaptiveConcurrencyLimiter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.NearCache;
+import ru.practicum.shareit.client.ServerBalancer;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Класс ItemClient, представляющий клиент для взаимодействия с сервисом, отвечающим за вещи.
+ * Ответы на запросы вещи по идентификатору, содержащие ETag, кэшируются в NearCache.
+ * Ответы владельцу вещи ETag не содержат и не кэшируются.
  */
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final NearCache nearCache;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public ItemClient(ServerBalancer balancer, AdaptiveConcurrencyLimiter limiter, HttpAsyncClient httpClient,
+                      ObjectMapper objectMapper, NearCache nearCache) {
+        super(API_PREFIX, balancer, limiter, httpClient, objectMapper);
+        this.nearCache = nearCache;
     }
 
     /**
@@ -34,33 +39,40 @@ public class ItemClient extends BaseClient {
      *
      * @param userId  Идентификатор пользователя.
      * @param itemDto Объект ItemDto с информацией о вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> create(Long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> create(Long userId, ItemDto itemDto) {
+        if (itemDto.getRequestId() == null) {
+            return post("", userId, itemDto);
+        }
+        return nearCache.invalidating(() -> post("", userId, itemDto), "/requests/" + itemDto.getRequestId());
     }
 
     /**
      * Отправляет PATCH запрос на обновление информации о вещи.
+     * Вещь может быть выведена в ответе на запрос, поэтому из кэша удаляются и запросы.
      *
      * @param userId  Идентификатор пользователя.
      * @param itemId  Идентификатор вещи.
      * @param itemDto Объект ItemDto с информацией о вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> update(Long userId, Long itemId, ItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    public CompletableFuture<ResponseEntity<Object>> update(Long userId, Long itemId, ItemDto itemDto) {
+        return nearCache.invalidating(() -> patch("/" + itemId, userId, itemDto),
+                API_PREFIX + "/" + itemId, "/requests/");
     }
 
     /**
      * Отправляет GET запрос на получение информации о вещи.
      *
-     * @param userId Идентификатор пользователя.
-     * @param itemId Идентификатор вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param userId      Идентификатор пользователя.
+     * @param itemId      Идентификатор вещи.
+     * @param ifNoneMatch Значение заголовка If-None-Match или null.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> get(Long userId, Long itemId) {
-        return get("/" + itemId, userId, null);
+    public CompletableFuture<ResponseEntity<Object>> get(Long userId, Long itemId, String ifNoneMatch) {
+        return nearCache.get(API_PREFIX + "/" + itemId, userId, ifNoneMatch, true,
+                validator -> get("/" + itemId, userId, null, validator));
     }
 
     /**
@@ -69,9 +81,9 @@ public class ItemClient extends BaseClient {
      * @param userId Идентификатор пользователя.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAll(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
@@ -85,11 +97,11 @@ public class ItemClient extends BaseClient {
      * @param text   Текст для поиска вещей.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> searchItems(Long userId, String text, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> searchItems(Long userId, String text, Integer from, Integer size) {
         if (text.isBlank()) {
-            return ResponseEntity.ok(Collections.emptyList());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(Collections.emptyList()));
         }
 
         Map<String, Object> parameters = Map.of(
@@ -105,9 +117,10 @@ public class ItemClient extends BaseClient {
      * @param userId     Идентификатор пользователя.
      * @param commentDto Объект CommentDto с информацией о комментарии.
      * @param itemId     Идентификатор вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> createComment(Long userId, CommentDto commentDto, Long itemId) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    public CompletableFuture<ResponseEntity<Object>> createComment(Long userId, CommentDto commentDto, Long itemId) {
+        return nearCache.invalidating(() -> post("/" + itemId + "/comment", userId, commentDto),
+                API_PREFIX + "/" + itemId);
     }
 }
\ No newline at end of file
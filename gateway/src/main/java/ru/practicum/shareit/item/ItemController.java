@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +11,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.Constants.USER_HEADER;
 
@@ -29,11 +31,11 @@ public class ItemController {
      *
      * @param userId  Идентификатор пользователя.
      * @param itemDto Объект ItemDto с информацией о вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader(USER_HEADER) Long userId,
-                                         @Valid @RequestBody ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<Object>> create(@RequestHeader(USER_HEADER) Long userId,
+                                                            @Valid @RequestBody ItemDto itemDto) {
         log.info("POST запрос на создание новой вещи: {} от пользователя c id: {}", itemDto, userId);
         return itemClient.create(userId, itemDto);
     }
@@ -44,12 +46,12 @@ public class ItemController {
      * @param userId  Идентификатор пользователя.
      * @param itemDto Объект ItemDto с информацией о вещи.
      * @param itemId  Идентификатор вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader(USER_HEADER) Long userId,
-                                         @RequestBody ItemDto itemDto,
-                                         @PathVariable("itemId") Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> update(@RequestHeader(USER_HEADER) Long userId,
+                                                            @RequestBody ItemDto itemDto,
+                                                            @PathVariable("itemId") Long itemId) {
         log.info("PATCH запрос на обновление вещи id: {} пользователя c id: {}", itemId, userId);
         return itemClient.update(userId, itemId, itemDto);
     }
@@ -57,15 +59,18 @@ public class ItemController {
     /**
      * Обработчик GET запроса на получение информации о вещи.
      *
-     * @param userId Идентификатор пользователя.
-     * @param itemId Идентификатор вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param userId      Идентификатор пользователя.
+     * @param itemId      Идентификатор вещи.
+     * @param ifNoneMatch Значение заголовка If-None-Match, передаваемое серверу без изменений.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> get(@RequestHeader(USER_HEADER) Long userId,
-                                      @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> get(@RequestHeader(USER_HEADER) Long userId,
+                                                         @PathVariable Long itemId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                         String ifNoneMatch) {
         log.info("GET запрос на получение вещи c id: {}", itemId);
-        return itemClient.get(userId, itemId);
+        return itemClient.get(userId, itemId, ifNoneMatch);
     }
 
     /**
@@ -74,12 +79,12 @@ public class ItemController {
      * @param userId Идентификатор пользователя.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader(USER_HEADER) Long userId,
-                                         @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                         @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> getAll(@RequestHeader(USER_HEADER) Long userId,
+                                                            @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                            @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
         log.info("GET запрос на получение всех вещей пользователя c id: {}", userId);
         return itemClient.getAll(userId, from, size);
     }
@@ -91,13 +96,13 @@ public class ItemController {
      * @param text   Текст для поиска вещей.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestHeader(USER_HEADER) Long userId,
-                                              @RequestParam(name = "text") String text,
-                                              @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
-                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
+    public CompletableFuture<ResponseEntity<Object>> searchItems(@RequestHeader(USER_HEADER) Long userId,
+                                                                 @RequestParam(name = "text") String text,
+                                                                 @RequestParam(value = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
         log.info("GET запрос на поиск всех вещей c текстом: {}", text);
         return itemClient.searchItems(userId, text, from, size);
     }
@@ -108,12 +113,12 @@ public class ItemController {
      * @param userId     Идентификатор пользователя.
      * @param commentDto Объект CommentDto с информацией о комментарии.
      * @param itemId     Идентификатор вещи.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@RequestHeader(USER_HEADER) Long userId,
-                                                @Validated @RequestBody CommentDto commentDto,
-                                                @PathVariable Long itemId) {
+    public CompletableFuture<ResponseEntity<Object>> createComment(@RequestHeader(USER_HEADER) Long userId,
+                                                                   @Validated @RequestBody CommentDto commentDto,
+                                                                   @PathVariable Long itemId) {
         return itemClient.createComment(userId, commentDto, itemId);
     }
 }
\ No newline at end of file
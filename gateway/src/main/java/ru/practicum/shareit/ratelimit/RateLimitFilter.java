@@ -0,0 +1,147 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static ru.practicum.shareit.Constants.USER_HEADER;
+
+/**
+ * Класс RateLimitFilter, ограничивающий частоту запросов каждого пользователя из заголовка X-Sharer-User-Id.
+ * Для каждого эндпоинта из shareit.rate-limit.endpoints (например, bookings для путей /bookings/**) частота
+ * задается свойствами shareit.rate-limit.{эндпоинт}.permits-per-second и shareit.rate-limit.{эндпоинт}.burst,
+ * для остальных путей используются значения по умолчанию. Запросы сверх ограничения отклоняются со статусом
+ * 429 и заголовком Retry-After, их количество публикуется в метрике gateway.rate-limit.rejected с тегом endpoint.
+ * Запросы без заголовка пользователя не ограничиваются. Подзапросы пакетного запроса не проходят через фильтр
+ * и списывают токены из корзин своих эндпоинтов методом tryAcquire.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String PREFIX = "shareit.rate-limit.";
+    private static final String DEFAULT_ENDPOINT = "default";
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Endpoint defaultEndpoint;
+
+    public RateLimitFilter(Environment environment,
+                           MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper,
+                           @Value("${shareit.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${shareit.rate-limit.endpoints:}") List<String> names,
+                           @Value("${shareit.rate-limit.permits-per-second:20}") double permitsPerSecond,
+                           @Value("${shareit.rate-limit.burst:40}") int burst,
+                           @Value("${shareit.rate-limit.max-users:100000}") int maxUsers) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        this.defaultEndpoint = new Endpoint(DEFAULT_ENDPOINT, "/",
+                new TokenBucketLimiter(permitsPerSecond, burst, maxUsers), meterRegistry);
+        for (String name : names) {
+            String endpoint = name.trim();
+            if (endpoint.isEmpty()) {
+                continue;
+            }
+            double endpointRate = environment.getProperty(PREFIX + endpoint + ".permits-per-second",
+                    Double.class, permitsPerSecond);
+            int endpointBurst = environment.getProperty(PREFIX + endpoint + ".burst", Integer.class, burst);
+            endpoints.add(new Endpoint(endpoint, "/" + endpoint,
+                    new TokenBucketLimiter(endpointRate, endpointBurst, maxUsers), meterRegistry));
+        }
+        endpoints.sort(Comparator.comparingInt((Endpoint e) -> e.path.length()).reversed());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || request.getHeader(USER_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long userId;
+        try {
+            userId = Long.parseLong(request.getHeader(USER_HEADER).trim());
+        } catch (NumberFormatException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = tryAcquire(userId, request.getRequestURI());
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse("Превышена частота запросов"));
+    }
+
+    /**
+     * Забирает токен из корзины пользователя для эндпоинта, к которому относится путь.
+     *
+     * @param userId - ID пользователя
+     * @param path   - путь запроса, например /items/1
+     * @return 0, если токен получен или ограничение выключено, иначе количество наносекунд до появления токена
+     */
+    public long tryAcquire(long userId, String path) {
+        if (!enabled) {
+            return 0;
+        }
+        Endpoint endpoint = endpoint(path);
+        long waitNanos = endpoint.limiter.tryAcquire(userId);
+        if (waitNanos > 0) {
+            endpoint.rejected.increment();
+            log.debug("Превышена частота запросов пользователя {} к {}", userId, endpoint.name);
+        }
+        return waitNanos;
+    }
+
+    private Endpoint endpoint(String uri) {
+        for (Endpoint endpoint : endpoints) {
+            if (uri.equals(endpoint.path) || uri.startsWith(endpoint.path + "/")) {
+                return endpoint;
+            }
+        }
+        return defaultEndpoint;
+    }
+
+    private static class Endpoint {
+        private final String name;
+        private final String path;
+        private final TokenBucketLimiter limiter;
+        private final Counter rejected;
+
+        Endpoint(String name, String path, TokenBucketLimiter limiter, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.path = path;
+            this.limiter = limiter;
+            this.rejected = Counter.builder("gateway.rate-limit.rejected").tag("endpoint", name)
+                    .description("Запросы, отклоненные из-за превышения частоты запросов пользователя")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс TokenBucketLimiter, представляющий набор корзин токенов, по одной на пользователя.
+ * Корзина пополняется со скоростью permitsPerSecond и вмещает не более burst токенов.
+ * Состояние корзины хранится в одном AtomicLong — моменте, когда корзина снова станет полной,
+ * поэтому запрос токена не требует блокировок.
+ * Корзины распределены по сегментам, размер каждого сегмента ограничен. При переполнении сегмента
+ * из него удаляются полные корзины: такая корзина ничем не отличается от новой. Неполные корзины
+ * не удаляются, иначе пользователь, исчерпавший лимит, получил бы новую полную корзину. Если удалить
+ * нечего, новым пользователям сегмента токены не выдаются, пока какая-нибудь корзина не наполнится.
+ */
+public class TokenBucketLimiter {
+    private static final int STRIPES = 64;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int stripeCapacity;
+    private final Map<Long, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(double permitsPerSecond, int burst, int maxUsers) {
+        this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / permitsPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.stripeCapacity = Math.max(1, maxUsers / STRIPES);
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Забирает токен из корзины пользователя.
+     *
+     * @param userId - ID пользователя
+     * @return 0, если токен получен, иначе количество наносекунд до появления токена
+     */
+    public long tryAcquire(long userId) {
+        return tryAcquire(userId, System.nanoTime());
+    }
+
+    long tryAcquire(long userId, long now) {
+        AtomicLong bucket = bucket(userId, now);
+        if (bucket == null) {
+            return intervalNanos;
+        }
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Возвращает корзину пользователя, создавая ее при необходимости.
+     *
+     * @return корзина или null, если сегмент заполнен неполными корзинами
+     */
+    private AtomicLong bucket(long userId, long now) {
+        Map<Long, AtomicLong> stripe = stripes[(int) (mix(userId) & (STRIPES - 1))];
+        AtomicLong bucket = stripe.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= stripeCapacity) {
+            evict(stripe, now);
+            if (stripe.size() >= stripeCapacity) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(userId, id -> new AtomicLong(now));
+    }
+
+    private void evict(Map<Long, AtomicLong> stripe, long now) {
+        Iterator<AtomicLong> iterator = stripe.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long mix(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -10,6 +11,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.util.concurrent.CompletableFuture;
 
 import static ru.practicum.shareit.Constants.USER_HEADER;
 
@@ -30,11 +32,11 @@ public class ItemRequestController {
      *
      * @param userId     Идентификатор пользователя.
      * @param requestDto Объект ItemRequestDto с информацией о запросе.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(USER_HEADER) Long userId,
-                                      @Valid @RequestBody ItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(@RequestHeader(USER_HEADER) Long userId,
+                                                         @Valid @RequestBody ItemRequestDto requestDto) {
         return requestClient.addNewRequest(userId, requestDto);
     }
 
@@ -42,10 +44,10 @@ public class ItemRequestController {
      * Обработчик GET запроса на получение списка запросов пользователя.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping
-    public ResponseEntity<Object> getUserRequests(@RequestHeader(USER_HEADER) Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserRequests(@RequestHeader(USER_HEADER) Long userId) {
         return requestClient.getUserRequests(userId);
     }
 
@@ -55,25 +57,30 @@ public class ItemRequestController {
      * @param userId Идентификатор пользователя.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param after  Курсор из заголовка X-Next-Cursor предыдущего ответа.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
-                                                 @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
-                                                 @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size) {
-        return requestClient.getAllRequests(userId, from, size);
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
+                                                                    @RequestParam(name = "from", defaultValue = "0") @Min(0) Integer from,
+                                                                    @RequestParam(value = "size", defaultValue = "10") @Min(1) Integer size,
+                                                                    @RequestParam(value = "after", required = false) String after) {
+        return requestClient.getAllRequests(userId, from, size, after);
     }
 
     /**
      * Обработчик GET запроса на получение информации о запросе на вещь.
      *
-     * @param userId    Идентификатор пользователя.
-     * @param requestId Идентификатор запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param userId      Идентификатор пользователя.
+     * @param requestId   Идентификатор запроса.
+     * @param ifNoneMatch Значение заголовка If-None-Match, передаваемое серверу без изменений.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> get(@RequestHeader(USER_HEADER) Long userId,
-                                      @PathVariable Long requestId) {
-        return requestClient.getRequestById(userId, requestId);
+    public CompletableFuture<ResponseEntity<Object>> get(@RequestHeader(USER_HEADER) Long userId,
+                                                         @PathVariable Long requestId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                         String ifNoneMatch) {
+        return requestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 }
\ No newline at end of file
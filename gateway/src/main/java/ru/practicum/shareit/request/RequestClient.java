@@ -1,30 +1,36 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AdaptiveConcurrencyLimiter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.NearCache;
+import ru.practicum.shareit.client.ServerBalancer;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Класс RequestClient, представляющий клиент для взаимодействия с сервисом, отвечающим за запросы на вещи.
+ * Ответы на запросы по идентификатору, содержащие ETag, кэшируются в NearCache.
  */
 @Service
 public class RequestClient extends BaseClient {
 
     private static final String API_PREFIX = "/requests";
 
+    private final NearCache nearCache;
+
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public RequestClient(ServerBalancer balancer, AdaptiveConcurrencyLimiter limiter, HttpAsyncClient httpClient,
+                         ObjectMapper objectMapper, NearCache nearCache) {
+        super(API_PREFIX, balancer, limiter, httpClient, objectMapper);
+        this.nearCache = nearCache;
     }
 
     /**
@@ -32,9 +38,9 @@ public class RequestClient extends BaseClient {
      *
      * @param userId     Идентификатор пользователя.
      * @param requestDto Объект ItemRequestDto с информацией о запросе.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> addNewRequest(Long userId, ItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> addNewRequest(Long userId, ItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
@@ -42,9 +48,9 @@ public class RequestClient extends BaseClient {
      * Отправляет GET запрос на получение списка запросов пользователя.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getUserRequests(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserRequests(Long userId) {
         return get("", userId);
     }
 
@@ -54,23 +60,30 @@ public class RequestClient extends BaseClient {
      * @param userId Идентификатор пользователя.
      * @param from   Параметр "from" для пагинации (начальный индекс).
      * @param size   Параметр "size" для пагинации (размер страницы).
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param after  Курсор последнего полученного запроса или null.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size);
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(Long userId, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after == null) {
+            return get("/all?from={from}&size={size}", userId, parameters);
+        }
+        parameters.put("after", after);
+        return get("/all?from={from}&size={size}&after={after}", userId, parameters);
     }
 
     /**
      * Отправляет GET запрос на получение информации о запросе на вещь.
      *
-     * @param userId    Идентификатор пользователя.
-     * @param requestId Идентификатор запроса.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @param userId      Идентификатор пользователя.
+     * @param requestId   Идентификатор запроса.
+     * @param ifNoneMatch Значение заголовка If-None-Match или null.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(Long userId, Long requestId, String ifNoneMatch) {
+        return nearCache.get(API_PREFIX + "/" + requestId, userId, ifNoneMatch, true,
+                validator -> get("/" + requestId, userId, null, validator));
     }
 }
\ No newline at end of file
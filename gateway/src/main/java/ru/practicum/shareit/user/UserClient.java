@@ -1,36 +1,42 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.AdaptiveConcurrencyLimiter;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.NearCache;
+import ru.practicum.shareit.client.ServerBalancer;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Класс UserClient, представляющий клиент для взаимодействия с сервисом, отвечающим за пользователей.
+ * Ответы на запросы пользователя по идентификатору кэшируются в NearCache.
  */
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
+    private final NearCache nearCache;
+
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build());
+    public UserClient(ServerBalancer balancer, AdaptiveConcurrencyLimiter limiter, HttpAsyncClient httpClient,
+                      ObjectMapper objectMapper, NearCache nearCache) {
+        super(API_PREFIX, balancer, limiter, httpClient, objectMapper);
+        this.nearCache = nearCache;
     }
 
     /**
      * Отправляет POST запрос на добавление нового пользователя.
      *
      * @param userDto Объект UserDto с информацией о пользователе.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> add(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> add(UserDto userDto) {
         return post("", userDto);
     }
 
@@ -38,39 +44,42 @@ public class UserClient extends BaseClient {
      * Отправляет GET запрос на получение информации о пользователе по его идентификатору.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getById(long userId) {
-        return get("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> getById(long userId) {
+        return nearCache.get(API_PREFIX + "/" + userId, null, null, false,
+                ifNoneMatch -> get("/" + userId, null, null, ifNoneMatch));
     }
 
     /**
      * Отправляет GET запрос на получение списка всех пользователей.
      *
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         return get("/");
     }
 
     /**
      * Отправляет PATCH запрос на обновление информации о пользователе.
+     * Имя пользователя выводится в комментариях к вещам, поэтому из кэша удаляются и вещи.
      *
      * @param userId  Идентификатор пользователя.
      * @param userDto Объект UserDto с информацией о пользователе.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> update(long userId, UserDto userDto) {
-        return patch("/" + userId, userDto);
+    public CompletableFuture<ResponseEntity<Object>> update(long userId, UserDto userDto) {
+        return nearCache.invalidating(() -> patch("/" + userId, userDto), API_PREFIX + "/" + userId, "/items/");
     }
 
     /**
      * Отправляет DELETE запрос на удаление пользователя по его идентификатору.
+     * Вместе с пользователем удаляются его вещи, запросы и комментарии, поэтому кэш очищается полностью.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
-    public ResponseEntity<Object> deleteById(Long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<Object>> deleteById(Long userId) {
+        return nearCache.invalidating(() -> delete("/" + userId), "/");
     }
 }
\ No newline at end of file
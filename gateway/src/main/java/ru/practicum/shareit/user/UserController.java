@@ -9,6 +9,8 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.markers.Create;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Класс UserController, представляющий контроллер для обработки HTTP-запросов, связанных с пользователями.
  */
@@ -24,10 +26,10 @@ public class UserController {
      * Обработчик POST запроса на создание нового пользователя.
      *
      * @param user Объект UserDto с информацией о пользователе.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PostMapping
-    public ResponseEntity<Object> add(@Validated({Create.class}) @RequestBody UserDto user) {
+    public CompletableFuture<ResponseEntity<Object>> add(@Validated({Create.class}) @RequestBody UserDto user) {
         log.info("POST запрос на создание пользователя: {}", user);
         return userClient.add(user);
     }
@@ -37,10 +39,10 @@ public class UserController {
      *
      * @param userDto Объект UserDto с информацией о пользователе.
      * @param userId  Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@RequestBody UserDto userDto, @PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> update(@RequestBody UserDto userDto, @PathVariable Long userId) {
         log.info("PATCH запрос на обновление пользователя c id: {}", userId);
         return userClient.update(userId, userDto);
     }
@@ -48,10 +50,10 @@ public class UserController {
     /**
      * Обработчик GET запроса на получение списка всех пользователей.
      *
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public CompletableFuture<ResponseEntity<Object>> getAll() {
         log.info("GET запрос на получение списка всех пользователей.");
         return userClient.getAll();
     }
@@ -60,10 +62,10 @@ public class UserController {
      * Обработчик GET запроса на получение информации о пользователе по его идентификатору.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> get(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> get(@PathVariable Long userId) {
         log.info("GET запрос на получение пользователя c id: {}", userId);
         return userClient.getById(userId);
     }
@@ -72,10 +74,10 @@ public class UserController {
      * Обработчик DELETE запроса на удаление пользователя по его идентификатору.
      *
      * @param userId Идентификатор пользователя.
-     * @return Объект ResponseEntity с ответом сервера.
+     * @return Ответ сервера, который будет получен асинхронно.
      */
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable long userId) {
+    public CompletableFuture<ResponseEntity<Object>> delete(@PathVariable long userId) {
         log.info("DELETE запрос на удаление пользователя с id: {}", userId);
         return userClient.deleteById(userId);
     }
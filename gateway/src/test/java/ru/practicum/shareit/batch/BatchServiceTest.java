@@ -0,0 +1,86 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import ru.practicum.shareit.batch.dto.SubRequestDto;
+import ru.practicum.shareit.batch.dto.SubResponseDto;
+import ru.practicum.shareit.booking.BookingClient;
+import ru.practicum.shareit.item.ItemClient;
+import ru.practicum.shareit.ratelimit.RateLimitFilter;
+import ru.practicum.shareit.request.RequestClient;
+import ru.practicum.shareit.user.UserClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchServiceTest {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private ItemClient itemClient;
+
+    @Mock
+    private BookingClient bookingClient;
+
+    @Mock
+    private RequestClient requestClient;
+
+    @Mock
+    private UserClient userClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BatchService service() {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(new MockEnvironment(), new SimpleMeterRegistry(),
+                objectMapper, true, List.of("items"), 1, 1, 100);
+        return new BatchService(itemClient, bookingClient, requestClient, userClient, rateLimitFilter,
+                objectMapper, 20);
+    }
+
+    private static CompletableFuture<ResponseEntity<Object>> response(HttpStatus status, String body) {
+        return CompletableFuture.completedFuture(ResponseEntity.status(status)
+                .body(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void executeShouldChargeSubRequestsToEndpointBucket() {
+        when(itemClient.get(USER_ID, 1L, null)).thenReturn(response(HttpStatus.OK, "{\"id\":1}"));
+
+        List<SubResponseDto> responses = service().execute(USER_ID, List.of(
+                new SubRequestDto("a", "GET", "/items/1"),
+                new SubRequestDto("b", "GET", "/items/1"))).join();
+
+        assertEquals(HttpStatus.OK.value(), responses.get(0).getStatus());
+        assertEquals(1, responses.get(0).getBody().get("id").asInt());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), responses.get(1).getStatus());
+        verify(itemClient, times(1)).get(USER_ID, 1L, null);
+    }
+
+    @Test
+    void executeWhenBodyIsNotJsonShouldReturnItAsString() {
+        when(itemClient.get(USER_ID, 1L, null)).thenReturn(response(HttpStatus.BAD_GATEWAY, "Bad Gateway"));
+
+        SubResponseDto response = service().execute(USER_ID, List.of(
+                new SubRequestDto("a", "GET", "/items/1"))).join().get(0);
+
+        assertEquals(HttpStatus.BAD_GATEWAY.value(), response.getStatus());
+        assertTrue(response.getBody().isTextual());
+        assertEquals("Bad Gateway", response.getBody().asText());
+    }
+}
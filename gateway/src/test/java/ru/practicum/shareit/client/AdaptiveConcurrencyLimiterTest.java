@@ -0,0 +1,101 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter.Route route(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(environment, meterRegistry, initialLimit, minLimit, maxLimit, 0.2,
+                Duration.ofSeconds(1)).route("/items");
+    }
+
+    /**
+     * Занимает все доступные места и освобождает их с указанным временем ответа.
+     */
+    private static void round(AdaptiveConcurrencyLimiter.Route route, long rttNanos) {
+        int acquired = 0;
+        while (route.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            route.release(rttNanos, false);
+        }
+    }
+
+    @Test
+    void releaseWithSteadyLowRttShouldGrowLimit() {
+        AdaptiveConcurrencyLimiter.Route route = route(10, 5, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            double before = route.getLimit();
+            round(route, 10 * MILLIS);
+            assertTrue(route.getLimit() > before);
+        }
+    }
+
+    @Test
+    void releaseWithInflatedRttShouldShrinkLimit() {
+        AdaptiveConcurrencyLimiter.Route route = route(20, 5, 1000);
+        for (int i = 0; i < 3; i++) {
+            round(route, 10 * MILLIS);
+        }
+        double warmedUp = route.getLimit();
+
+        for (int i = 0; i < 3; i++) {
+            round(route, 100 * MILLIS);
+        }
+
+        assertTrue(route.getLimit() < warmedUp);
+    }
+
+    @Test
+    void releaseShouldKeepLimitWithinMinAndMax() {
+        AdaptiveConcurrencyLimiter.Route route = route(10, 5, 30);
+
+        for (int i = 0; i < 20; i++) {
+            round(route, 10 * MILLIS);
+        }
+        assertEquals(30, route.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(route.tryAcquire());
+            route.release(10 * MILLIS, true);
+        }
+        assertEquals(5, route.getLimit());
+    }
+
+    @Test
+    void routeShouldClampInitialLimitToRouteProperties() {
+        environment.setProperty("shareit-server.limiter.items.max-limit", "20");
+
+        assertEquals(20, route(50, 5, 500).getLimit());
+    }
+
+    @Test
+    void tryAcquireOverLimitShouldRejectUntilRelease() {
+        AdaptiveConcurrencyLimiter.Route route = route(2, 1, 10);
+
+        assertTrue(route.tryAcquire());
+        assertTrue(route.tryAcquire());
+        assertFalse(route.tryAcquire());
+        assertEquals(2, route.getInFlight());
+        assertEquals(1, meterRegistry.get("gateway.concurrency.rejected").tag("route", "items").counter().count());
+
+        route.release(10 * MILLIS, false);
+        assertTrue(route.tryAcquire());
+    }
+}
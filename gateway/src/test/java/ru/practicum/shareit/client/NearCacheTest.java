@@ -0,0 +1,127 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NearCacheTest {
+
+    private static final String ETAG = "\"1\"";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private NearCache cache(Duration ttl, long maxWeight) {
+        return new NearCache(new MockEnvironment(), meterRegistry, true, ttl, maxWeight);
+    }
+
+    private static ResponseEntity<Object> ok(byte[] body) {
+        return ResponseEntity.ok().eTag(ETAG).body(body);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("cache", "nearCache").gauge().value();
+    }
+
+    /**
+     * Загрузчик, который запоминает переданные значения If-None-Match и возвращает ответы по очереди.
+     */
+    private static class Loader implements Function<String, CompletableFuture<ResponseEntity<Object>>> {
+        private final List<String> ifNoneMatches = new ArrayList<>();
+        private final List<CompletableFuture<ResponseEntity<Object>>> responses = new ArrayList<>();
+
+        private Loader thenReturn(ResponseEntity<Object> response) {
+            return thenReturn(CompletableFuture.completedFuture(response));
+        }
+
+        private Loader thenReturn(CompletableFuture<ResponseEntity<Object>> response) {
+            responses.add(response);
+            return this;
+        }
+
+        @Override
+        public CompletableFuture<ResponseEntity<Object>> apply(String ifNoneMatch) {
+            ifNoneMatches.add(ifNoneMatch);
+            return responses.get(ifNoneMatches.size() - 1);
+        }
+    }
+
+    @Test
+    void getWhenInvalidatedDuringLoadShouldNotStoreResponse() {
+        NearCache cache = cache(Duration.ofMinutes(1), 1_000_000);
+        CompletableFuture<ResponseEntity<Object>> inFlight = new CompletableFuture<>();
+        Loader loader = new Loader().thenReturn(inFlight).thenReturn(ok(new byte[]{2}));
+
+        CompletableFuture<ResponseEntity<Object>> first = cache.get("/items/1", null, null, true, loader);
+        cache.invalidate("/items/1");
+        inFlight.complete(ok(new byte[]{1}));
+
+        assertEquals(HttpStatus.OK, first.join().getStatusCode());
+        assertEquals(0, gauge("cache.size"));
+        cache.get("/items/1", null, null, true, loader).join();
+        assertEquals(2, loader.ifNoneMatches.size());
+    }
+
+    @Test
+    void getWhenServerAnswersNotModifiedShouldRenewEntryAndKeepBody() throws InterruptedException {
+        NearCache cache = cache(Duration.ofMillis(300), 1_000_000);
+        byte[] body = {1, 2, 3};
+        Loader loader = new Loader()
+                .thenReturn(ok(body))
+                .thenReturn(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETAG).build());
+        cache.get("/items/1", null, null, true, loader).join();
+        double weight = gauge("cache.weight");
+        Thread.sleep(350);
+
+        ResponseEntity<Object> revalidated = cache.get("/items/1", null, null, true, loader).join();
+        ResponseEntity<Object> cached = cache.get("/items/1", null, null, true, loader).join();
+
+        assertEquals(2, loader.ifNoneMatches.size());
+        assertNull(loader.ifNoneMatches.get(0));
+        assertEquals(ETAG, loader.ifNoneMatches.get(1));
+        assertEquals(HttpStatus.OK, revalidated.getStatusCode());
+        assertSame(body, revalidated.getBody());
+        assertSame(body, cached.getBody());
+        assertEquals(weight, gauge("cache.weight"));
+    }
+
+    @Test
+    void getWhenFullShouldEvictLeastRecentlyUsedAndKeepWeight() {
+        byte[] body = new byte[100];
+        long entryWeight = body.length + "/items/1 null".length() * 2L + 256;
+        NearCache cache = cache(Duration.ofMinutes(1), entryWeight * 2 + 10);
+        Loader loader = new Loader();
+        for (int i = 0; i < 4; i++) {
+            loader.thenReturn(ok(body));
+        }
+
+        cache.get("/items/1", null, null, true, loader).join();
+        cache.get("/items/2", null, null, true, loader).join();
+        cache.get("/items/1", null, null, true, loader).join();
+        cache.get("/items/3", null, null, true, loader).join();
+
+        assertEquals(2, gauge("cache.size"));
+        assertEquals(entryWeight * 2, gauge("cache.weight"));
+        assertEquals(1, meterRegistry.get("cache.evictions").tag("cache", "nearCache").counter().count());
+        cache.get("/items/1", null, null, true, loader).join();
+        assertEquals(3, loader.ifNoneMatches.size());
+        cache.get("/items/2", null, null, true, loader).join();
+        assertEquals(4, loader.ifNoneMatches.size());
+
+        cache.invalidate("/items/");
+        assertEquals(0, gauge("cache.size"));
+        assertEquals(0, gauge("cache.weight"));
+    }
+}
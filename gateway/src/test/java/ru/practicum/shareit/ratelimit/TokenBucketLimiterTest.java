@@ -0,0 +1,82 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long START = 1_000_000 * MILLIS;
+
+    @Test
+    void tryAcquireShouldAllowBurstAndThenReturnWaitTime() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 3, 1000);
+
+        assertEquals(0, limiter.tryAcquire(1L, START));
+        assertEquals(0, limiter.tryAcquire(1L, START));
+        assertEquals(0, limiter.tryAcquire(1L, START));
+        assertEquals(100 * MILLIS, limiter.tryAcquire(1L, START));
+        assertEquals(0, limiter.tryAcquire(2L, START));
+    }
+
+    @Test
+    void tryAcquireShouldAllowSteadyRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 1, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            long now = START + i * 100 * MILLIS;
+            assertEquals(0, limiter.tryAcquire(1L, now));
+            assertEquals(100 * MILLIS, limiter.tryAcquire(1L, now));
+        }
+        assertEquals(40 * MILLIS, limiter.tryAcquire(1L, START + 960 * MILLIS));
+    }
+
+    @Test
+    void tryAcquireShouldRefillBurstAfterIdle() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 3, 1000);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(1L, START);
+        }
+
+        long halfRefilled = START + 200 * MILLIS;
+        assertEquals(0, limiter.tryAcquire(1L, halfRefilled));
+        assertEquals(0, limiter.tryAcquire(1L, halfRefilled));
+        assertTrue(limiter.tryAcquire(1L, halfRefilled) > 0);
+
+        long idle = START + 10_000 * MILLIS;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(1L, idle));
+        }
+        assertTrue(limiter.tryAcquire(1L, idle) > 0);
+    }
+
+    @Test
+    void tryAcquireWhenStripeHoldsOnlyThrottledBucketsShouldRejectNewUsers() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1);
+        List<Long> accepted = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        for (long userId = 1; userId <= 65; userId++) {
+            if (limiter.tryAcquire(userId, START) == 0) {
+                accepted.add(userId);
+            } else {
+                rejected.add(userId);
+            }
+        }
+
+        assertFalse(rejected.isEmpty());
+        for (Long userId : accepted) {
+            assertTrue(limiter.tryAcquire(userId, START) > 0);
+        }
+
+        long refilled = START + 2_000 * MILLIS;
+        for (Long userId : rejected) {
+            assertEquals(0, limiter.tryAcquire(userId, refilled));
+        }
+    }
+}
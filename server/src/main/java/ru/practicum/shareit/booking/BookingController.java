@@ -2,8 +2,12 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -56,19 +60,39 @@ public class BookingController {
         return bookingService.update(userId, bookingId, approved);
     }
 
+    /**
+     * Обработчик GET-запроса для подписки на изменения статусов бронирований пользователя.
+     * События приходят в виде server-sent events, пока клиент не отключится или не истечет таймаут подписки.
+     *
+     * @param userId Идентификатор пользователя, выполняющего запрос (из заголовка запроса).
+     * @return Поток событий изменения статуса бронирований.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(USER_HEADER) Long userId) {
+        log.info("GET запрос на подписку на события бронирований от пользователя с id: {}", userId);
+        return bookingService.subscribe(userId);
+    }
+
     /**
      * Обработчик GET-запроса для получения данных о бронировании по его идентификатору.
      *
+     * Если ETag из If-None-Match совпадает с текущим, возвращается ответ 304.
+     *
      * @param userId     Идентификатор пользователя, выполняющего запрос (из заголовка запроса).
      * @param bookingId  Идентификатор бронирования, которое требуется получить (из пути запроса).
-     * @return DTO объект, содержащий данные о бронировании.
+     * @param request    Текущий запрос.
+     * @return DTO объект, содержащий данные о бронировании, или null, если бронирование не изменилось.
      */
     @GetMapping("/{bookingId}")
-    public BookingDtoOut findBookingById(@RequestHeader(USER_HEADER) Long userId,
-                                         @PathVariable("bookingId")
-                                         Long bookingId) {
+    public ResponseEntity<BookingDtoOut> findBookingById(@RequestHeader(USER_HEADER) Long userId,
+                                                         @PathVariable("bookingId") Long bookingId,
+                                                         WebRequest request) {
         log.info("GET запрос на получение данных о  бронировании от пользователя с id: {}", userId);
-        return bookingService.findBookingByUserId(userId, bookingId);
+        String eTag = bookingService.findBookingETag(userId, bookingId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(bookingService.findBookingByUserId(userId, bookingId));
     }
 
     /**
@@ -78,15 +102,17 @@ public class BookingController {
      * @param bookingState  Статус бронирований для фильтрации (из параметра запроса).
      * @param from          Индекс начала списка для пагинации (из параметра запроса).
      * @param size          Размер списка для пагинации (из параметра запроса).
+     * @param after         Курсор вида start,id последнего полученного бронирования (из параметра запроса).
      * @return Список DTO объектов, содержащих данные о бронированиях пользователя.
      */
     @GetMapping
     public List<BookingDtoOut> findAll(@RequestHeader(USER_HEADER) Long userId,
                                        @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
                                        @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                       @RequestParam(value = "size", defaultValue = "10") Integer size) {
+                                       @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                       @RequestParam(value = "after", required = false) String after) {
         log.info("GET запрос на получение списка всех бронирований текущего пользователя с id: {} и статусом {}", userId, bookingState);
-        return bookingService.findAll(userId, bookingState, from, size);
+        return bookingService.findAll(userId, bookingState, from, size, after);
     }
 
     /**
@@ -96,14 +122,16 @@ public class BookingController {
      * @param bookingState  Статус бронирований для фильтрации (из параметра запроса).
      * @param from          Индекс начала списка для пагинации (из параметра запроса).
      * @param size          Размер списка для пагинации (из параметра запроса).
+     * @param after         Курсор вида start,id последнего полученного бронирования (из параметра запроса).
      * @return Список DTO объектов, содержащих данные о бронированиях владельца.
      */
     @GetMapping("/owner")
     public List<BookingDtoOut> getAllOwner(@RequestHeader(USER_HEADER) Long ownerId,
                                            @RequestParam(value = "state", defaultValue = "ALL") String bookingState,
                                            @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                           @RequestParam(value = "size", defaultValue = "10") Integer size) {
+                                           @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                           @RequestParam(value = "after", required = false) String after) {
         log.info("GET запрос на получение списка всех бронирований текущего владельца с id: {} и статусом {}", ownerId, bookingState);
-        return bookingService.findAllOwner(ownerId, bookingState, from, size);
+        return bookingService.findAllOwner(ownerId, bookingState, from, size, after);
     }
 }
\ No newline at end of file
@@ -21,7 +21,7 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     @ToString.Exclude
     private Item item;
@@ -32,7 +32,7 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", nullable = false)
     @ToString.Exclude
     private User booker;
@@ -41,6 +41,10 @@ public class Booking {
     @Column(name = "status")
     private BookingStatus status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Booking(Item item, LocalDateTime start, LocalDateTime end, User booker, BookingStatus status) {
         this.item = item;
         this.start = start;
@@ -7,10 +7,12 @@ package ru.practicum.shareit.booking.model;
  * - APPROVED: Бронирование подтверждено.
  * - REJECTED: Бронирование отклонено.
  * - CANCELED: Бронирование отменено.
+ * - EXPIRED: Бронирование не подтверждено до даты начала.
  */
 public enum BookingStatus {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED,
+    EXPIRED
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,92 +16,13 @@ import java.util.Optional;
  * Интерфейс BookingRepository, представляющий репозиторий для работы с сущностью Booking.
  * Расширяет JpaRepository для наследования базовых методов работы с базой данных.
  */
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllBookingsByBookerId(Long userId, Pageable pageable);
-
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllCurrentBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllPastBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllFutureBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllWaitingBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllRejectedBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id  " +
-            "WHERE i.owner_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllBookingsByOwnerId(Long ownerId, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllCurrentBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllPastBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllFutureBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllWaitingBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllRejectedBookingsByOwnerId(Long ownerId, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 
     @Query(value = "SELECT * FROM bookings as b " +
             "JOIN items as i ON i.id = b.item_id " +
@@ -126,8 +48,66 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.end_date < ?3 ", nativeQuery = true)
     List<Booking> findAllByUserBookings(Long userId, Long itemId, LocalDateTime now);
 
-    List<Booking> findAllByItemInAndStatusOrderByStartAsc(List<Item> items, BookingStatus status);
-
-    List<Booking> findAllByItemAndStatusOrderByStartAsc(Item item, BookingStatus bookingStatus);
-
-}
\ No newline at end of file
+    /**
+     * Возвращает для каждой вещи из списка не более двух подтвержденных бронирований: последнее,
+     * начавшееся не позже заданного момента, и ближайшее, начинающееся после него.
+     * Бронирования ранжируются оконной функцией ROW_NUMBER, поэтому из базы передается
+     * не более двух строк на вещь независимо от общего числа ее бронирований.
+     *
+     * @param itemIds     Идентификаторы вещей.
+     * @param currentTime Текущий момент времени.
+     * @return Список последних и следующих бронирований вещей.
+     */
+    @Query(value = "SELECT id, item_id, start_date, end_date, booker_id, status, version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC, b.id DESC) AS rn " +
+            "FROM bookings as b " +
+            "WHERE b.item_id IN ?1 " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date <= ?2) as last_bookings " +
+            "WHERE rn = 1 " +
+            "UNION ALL " +
+            "SELECT id, item_id, start_date, end_date, booker_id, status, version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC, b.id ASC) AS rn " +
+            "FROM bookings as b " +
+            "WHERE b.item_id IN ?1 " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date > ?2) as next_bookings " +
+            "WHERE rn = 1", nativeQuery = true)
+    List<Booking> findLastAndNextApprovedBookings(Collection<Long> itemIds, LocalDateTime currentTime);
+
+    @Query("select b.id as id, b.version as version, i.version as itemVersion, i.owner.id as ownerId, " +
+            "u.id as bookerId, u.name as bookerName, u.email as bookerEmail " +
+            "from Booking as b " +
+            "join b.item as i " +
+            "join b.booker as u " +
+            "where b.id = ?1")
+    Optional<BookingVersion> findVersionById(Long bookingId);
+
+    /**
+     * Переводит бронирования с указанным статусом в новый статус одним запросом и увеличивает их версию.
+     *
+     * @return количество измененных бронирований
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = ?3, b.version = b.version + 1 " +
+            "where b.id in ?1 " +
+            "and b.status = ?2")
+    int updateStatusByIdIn(Collection<Long> ids, BookingStatus status, BookingStatus newStatus);
+
+    @Query("select b.id as bookingId, b.item.id as itemId, b.booker.id as bookerId, i.owner.id as ownerId, " +
+            "b.status as status " +
+            "from Booking as b " +
+            "join b.item as i " +
+            "where b.id in ?1")
+    List<BookingStatusChange> findAllStatusChangesByIdIn(Collection<Long> ids);
+
+    @Query("select count(b) > 0 " +
+            "from Booking as b " +
+            "where b.item.id = ?1 " +
+            "and b.id <> ?2 " +
+            "and b.status in ?3 " +
+            "and b.start < ?5 " +
+            "and b.end > ?4")
+    boolean existsOverlapping(Long itemId, Long bookingId, Collection<BookingStatus> statuses, LocalDateTime start,
+                              LocalDateTime end);
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Интерфейс BookingRepositoryCustom, содержащий запросы к бронированиям, которые строятся динамически
+ * по состоянию бронирований и роли пользователя.
+ */
+public interface BookingRepositoryCustom {
+
+    /**
+     * Возвращает страницу бронирований пользователя с заданным состоянием,
+     * отсортированную по убыванию даты начала и идентификатора.
+     *
+     * @param role     Роль пользователя: автор бронирований или владелец вещей.
+     * @param userId   Идентификатор пользователя.
+     * @param state    Состояние бронирований для фильтрации.
+     * @param now      Текущий момент времени.
+     * @param pageable Параметры пагинации.
+     * @return Список бронирований.
+     */
+    List<Booking> findAllByState(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                 Pageable pageable);
+
+    /**
+     * Возвращает страницу бронирований пользователя с заданным состоянием, следующую за курсором,
+     * отсортированную по убыванию даты начала и идентификатора.
+     *
+     * @param role   Роль пользователя: автор бронирований или владелец вещей.
+     * @param userId Идентификатор пользователя.
+     * @param state  Состояние бронирований для фильтрации.
+     * @param now    Текущий момент времени.
+     * @param after  Курсор последнего полученного бронирования.
+     * @param size   Размер страницы.
+     * @return Список бронирований.
+     */
+    List<Booking> findAllByStateAfter(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                      PageCursor after, int size);
+
+    /**
+     * Возвращает бронирования со статусом WAITING, дата начала которых наступила раньше указанного момента,
+     * с ID больше указанного, в порядке ID, и блокирует их до конца транзакции.
+     * В PostgreSQL бронирования, уже заблокированные другой транзакцией, пропускаются (SKIP LOCKED),
+     * на других базах данных запрос ожидает снятия блокировки.
+     *
+     * @param time    Момент времени.
+     * @param afterId ID последнего обработанного бронирования.
+     * @param size    Размер порции.
+     * @return Список бронирований.
+     */
+    List<Booking> findWaitingStartedBefore(LocalDateTime time, Long afterId, int size);
+}
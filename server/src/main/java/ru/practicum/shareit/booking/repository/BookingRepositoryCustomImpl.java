@@ -0,0 +1,179 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.LockOptions;
+import org.hibernate.Session;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация интерфейса BookingRepositoryCustom на основе Criteria API.
+ * Запрос собирается из условия роли пользователя и условий состояния, поэтому в SQL попадают
+ * только нужные предикаты. Вещь и автор бронирования выбираются тем же запросом,
+ * чтобы преобразование страницы в DTO не выполняло отдельных запросов на каждую строку.
+ * При наличии курсора страница выбирается по условию (start, id) < (курсор) вместо OFFSET.
+ * Здесь же выполняется блокирующая выборка просроченных бронирований, подсказка SKIP LOCKED
+ * для которой зависит от базы данных.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean skipLocked;
+
+    @Override
+    public List<Booking> findAllByState(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                        Pageable pageable) {
+        return createQuery(role, userId, state, now, null)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    @Override
+    public List<Booking> findAllByStateAfter(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                             PageCursor after, int size) {
+        return createQuery(role, userId, state, now, after)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<Booking> findWaitingStartedBefore(LocalDateTime time, Long afterId, int size) {
+        TypedQuery<Booking> query = entityManager.createQuery("select b from Booking as b " +
+                        "where b.status = :status " +
+                        "and b.start < :time " +
+                        "and b.id > :afterId " +
+                        "order by b.id", Booking.class)
+                .setParameter("status", BookingStatus.WAITING)
+                .setParameter("time", time)
+                .setParameter("afterId", afterId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(size);
+        if (supportsSkipLocked()) {
+            query.setHint(LOCK_TIMEOUT_HINT, LockOptions.SKIP_LOCKED);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Проверяет, что база данных поддерживает SKIP LOCKED. Диалект Hibernate для этого не подходит:
+     * он задан для PostgreSQL и тогда, когда приложение работает с H2.
+     *
+     * @return true, если база данных - PostgreSQL
+     */
+    private boolean supportsSkipLocked() {
+        Boolean result = skipLocked;
+        if (result == null) {
+            result = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            skipLocked = result;
+        }
+        return result;
+    }
+
+    /**
+     * Собирает запрос бронирований пользователя.
+     *
+     * @param role   Роль пользователя.
+     * @param userId Идентификатор пользователя.
+     * @param state  Состояние бронирований для фильтрации.
+     * @param now    Текущий момент времени.
+     * @param after  Курсор последнего полученного бронирования или null.
+     * @return Запрос бронирований.
+     */
+    private TypedQuery<Booking> createQuery(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                            PageCursor after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        @SuppressWarnings("unchecked")
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        booking.fetch("booker", JoinType.INNER);
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(rolePredicate(cb, booking, item, role, userId));
+        predicates.addAll(statePredicates(cb, booking, state, now));
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.getTime()),
+                    cb.and(cb.equal(start, after.getTime()), cb.lessThan(id, after.getId()))));
+        }
+
+        query.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Возвращает условие принадлежности бронирования пользователю.
+     *
+     * @param cb      Построитель условий.
+     * @param booking Корень запроса.
+     * @param item    Присоединенная вещь.
+     * @param role    Роль пользователя.
+     * @param userId  Идентификатор пользователя.
+     * @return Условие.
+     */
+    private static Predicate rolePredicate(CriteriaBuilder cb, Root<Booking> booking, Join<Booking, Item> item,
+                                           BookingRole role, Long userId) {
+        if (role == BookingRole.OWNER) {
+            return cb.equal(item.get("owner").get("id"), userId);
+        }
+        return cb.equal(booking.get("booker").get("id"), userId);
+    }
+
+    /**
+     * Возвращает условия отбора бронирований для заданного состояния.
+     *
+     * @param cb      Построитель условий.
+     * @param booking Корень запроса.
+     * @param state   Состояние бронирований.
+     * @param now     Текущий момент времени.
+     * @return Список условий.
+     */
+    private static List<Predicate> statePredicates(CriteriaBuilder cb, Root<Booking> booking, BookingState state,
+                                                   LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<BookingStatus> status = booking.get("status");
+        switch (state) {
+            case CURRENT:
+                return List.of(cb.lessThanOrEqualTo(start, now), cb.greaterThanOrEqualTo(end, now));
+            case PAST:
+                return List.of(cb.lessThan(end, now));
+            case FUTURE:
+                return List.of(cb.greaterThan(start, now));
+            case WAITING:
+                return List.of(cb.equal(status, BookingStatus.WAITING), cb.greaterThan(start, now));
+            case REJECTED:
+                return List.of(cb.equal(status, BookingStatus.REJECTED));
+            default:
+                return List.of();
+        }
+    }
+}
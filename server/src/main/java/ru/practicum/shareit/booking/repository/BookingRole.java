@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Перечисление BookingRole, определяющее, по какой связи пользователя с бронированием выбираются бронирования.
+ * Возможные значения:
+ * - BOOKER: пользователь является автором бронирования.
+ * - OWNER: пользователь является владельцем забронированной вещи.
+ */
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
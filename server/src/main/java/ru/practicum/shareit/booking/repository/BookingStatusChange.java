@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Проекция BookingStatusChange, содержащая статус бронирования и участников бронирования.
+ * Используется для рассылки событий об изменении статуса без загрузки связанных сущностей.
+ */
+public interface BookingStatusChange {
+
+    Long getBookingId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    BookingStatus getStatus();
+}
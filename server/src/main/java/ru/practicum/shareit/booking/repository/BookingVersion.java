@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.repository;
+
+/**
+ * Проекция BookingVersion, содержащая версии бронирования и вещи и данные автора бронирования.
+ * Используется для вычисления ETag бронирования без загрузки связанных сущностей.
+ */
+public interface BookingVersion {
+
+    Long getId();
+
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getOwnerId();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
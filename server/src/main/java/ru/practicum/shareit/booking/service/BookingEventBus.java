@@ -0,0 +1,260 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Класс BookingEventBus, рассылающий события изменения статуса бронирований подписчикам внутри процесса сервера.
+ * Событие получают автор бронирования и владелец вещи, событие отправляется только после фиксации транзакции.
+ * Подписчик получает события в виде server-sent events. События каждого подписчика складываются в очередь
+ * ограниченного размера и отправляются отдельными потоками, поэтому медленный подписчик не задерживает
+ * транзакцию и других подписчиков. При переполнении очереди самые старые события отбрасываются, а подписчику
+ * отправляется событие overflow, после которого бронирования нужно перечитать.
+ * Раз в shareit.booking.events.heartbeat подписчикам отправляется комментарий, чтобы соединение не закрывалось
+ * по таймауту и отключившиеся подписчики обнаруживались.
+ * Идентификатор события состоит из случайного идентификатора экземпляра сервера и номера события в нем:
+ * шлюз объединяет потоки нескольких экземпляров, поэтому номера разных экземпляров совпадают. Идентификаторы
+ * уникальны, но не упорядочены между экземплярами.
+ */
+@Slf4j
+@Component
+public class BookingEventBus {
+
+    private static final String STATUS_EVENT = "booking-status";
+    private static final String OVERFLOW_EVENT = "overflow";
+    private static final Supplier<SseEmitter.SseEventBuilder> HEARTBEAT = () -> SseEmitter.event().comment("heartbeat");
+
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter dropped;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-events-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingEventBus(MeterRegistry meterRegistry,
+                           @Value("${shareit.booking.events.buffer-size:64}") int bufferSize,
+                           @Value("${shareit.booking.events.timeout:30m}") Duration timeout,
+                           @Value("${shareit.booking.events.heartbeat:15s}") Duration heartbeat,
+                           @Value("${shareit.booking.events.threads:4}") int threads) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = Counter.builder("booking.events.dropped")
+                .description("События, отброшенные из-за переполнения очереди подписчика")
+                .register(meterRegistry);
+        Gauge.builder("booking.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Подписчики на события бронирований")
+                .register(meterRegistry);
+        long heartbeatMillis = heartbeat.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Подписывает пользователя на события бронирований, автором которых он является или вещь которых ему принадлежит.
+     *
+     * @param userId - ID пользователя
+     * @return поток событий
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.compute(userId, (id, userSubscribers) -> {
+            Set<Subscriber> result = userSubscribers == null ? new CopyOnWriteArraySet<>() : userSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return emitter;
+    }
+
+    /**
+     * Отправляет событие об изменении статуса бронирования после фиксации текущей транзакции.
+     *
+     * @param booking - бронирование с новым статусом
+     */
+    public void publish(Booking booking) {
+        publish(BookingEventDto.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .status(booking.getStatus())
+                .changed(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Отправляет готовое событие об изменении статуса бронирования после фиксации текущей транзакции.
+     *
+     * @param event - событие
+     */
+    public void publish(BookingEventDto event) {
+        AfterCommit.run(() -> {
+            String id = instanceId + "-" + sequence.incrementAndGet();
+            Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event()
+                    .id(id)
+                    .name(STATUS_EVENT)
+                    .data(event, MediaType.APPLICATION_JSON);
+            deliver(event.getBookerId(), message);
+            if (!event.getOwnerId().equals(event.getBookerId())) {
+                deliver(event.getOwnerId(), message);
+            }
+        });
+    }
+
+    private void deliver(Long userId, Supplier<SseEmitter.SseEventBuilder> message) {
+        Set<Subscriber> userSubscribers = subscribers.get(userId);
+        if (userSubscribers != null) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(message, false);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(HEARTBEAT, true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        for (Set<Subscriber> userSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Подписчик с собственной очередью неотправленных событий. События одного подписчика
+     * отправляются по очереди одним потоком. В очереди хранятся фабрики событий, так как
+     * SseEventBuilder нельзя отправить повторно.
+     */
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Supplier<SseEmitter.SseEventBuilder>> queue = new ArrayDeque<>();
+        private boolean sending;
+        private boolean overflowed;
+        private boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Supplier<SseEmitter.SseEventBuilder> message, boolean heartbeat) {
+            synchronized (this) {
+                if (closed || (heartbeat && sending)) {
+                    return;
+                }
+                if (queue.size() >= bufferSize) {
+                    queue.poll();
+                    overflowed = true;
+                    dropped.increment();
+                }
+                queue.add(message);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        private void send() {
+            while (true) {
+                Supplier<SseEmitter.SseEventBuilder> message;
+                boolean overflow;
+                synchronized (this) {
+                    message = queue.poll();
+                    if (message == null || closed) {
+                        sending = false;
+                        return;
+                    }
+                    overflow = overflowed;
+                    overflowed = false;
+                }
+                try {
+                    if (overflow) {
+                        emitter.send(SseEmitter.event().name(OVERFLOW_EVENT).data(""));
+                    }
+                    emitter.send(message.get());
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Подписчик на события бронирований пользователя {} отключился", userId);
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                sending = false;
+                queue.clear();
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(userId, (id, userSubscribers) -> {
+                userSubscribers.remove(this);
+                return userSubscribers.isEmpty() ? null : userSubscribers;
+            });
+        }
+    }
+}
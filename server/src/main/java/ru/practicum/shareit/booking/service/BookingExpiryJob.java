@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStatusChange;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Класс BookingExpiryJob, переводящий в статус EXPIRED бронирования, которые не были подтверждены
+ * до даты начала. Такие бронирования уже не попадают в выборку WAITING, но продолжают занимать период
+ * вещи при проверке пересечений и строки в очереди владельца.
+ * Раз в shareit.booking.expiry.interval бронирования просматриваются порциями по shareit.booking.expiry.batch-size
+ * в порядке ID: каждая порция блокируется, переводится в новый статус одним запросом UPDATE и фиксируется
+ * отдельной транзакцией. Бронирования, заблокированные другими транзакциями, например подтверждаемые владельцем
+ * в этот момент, пропускаются до следующего запуска.
+ * Количество просроченных бронирований и порций, длительность и ошибки запусков публикуются в метриках
+ * booking.expiry.*.
+ */
+@Slf4j
+@Component
+public class BookingExpiryJob {
+
+    private final BookingRepository bookingRepository;
+    private final BookingEventBus bookingEventBus;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int batchSize;
+    private final AtomicLong position = new AtomicLong();
+    private final Counter expired;
+    private final Counter batches;
+    private final Counter failures;
+    private final Timer duration;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            BookingEventBus bookingEventBus,
+                            OutboxWriter outboxWriter,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.expiry.enabled:true}") boolean enabled,
+                            @Value("${shareit.booking.expiry.interval:1m}") Duration interval,
+                            @Value("${shareit.booking.expiry.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingEventBus = bookingEventBus;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.intervalMillis = interval.toMillis();
+        this.batchSize = batchSize;
+        this.expired = Counter.builder("booking.expiry.expired")
+                .description("Бронирования, переведенные в статус EXPIRED")
+                .register(meterRegistry);
+        this.batches = Counter.builder("booking.expiry.batches")
+                .description("Обработанные порции бронирований")
+                .register(meterRegistry);
+        this.failures = Counter.builder("booking.expiry.failures")
+                .description("Запуски, завершившиеся ошибкой")
+                .register(meterRegistry);
+        this.duration = Timer.builder("booking.expiry.duration")
+                .description("Длительность запуска")
+                .register(meterRegistry);
+        Gauge.builder("booking.expiry.position", position, AtomicLong::get)
+                .description("ID последнего просмотренного бронирования в текущем или последнем запуске")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает периодическую проверку бронирований после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Переводит в статус EXPIRED все бронирования со статусом WAITING, дата начала которых наступила раньше
+     * указанного момента.
+     *
+     * @param time - момент времени
+     * @return количество просроченных бронирований
+     */
+    public int expireStartedBefore(LocalDateTime time) {
+        int total = 0;
+        long afterId = 0;
+        position.set(0);
+        while (!Thread.currentThread().isInterrupted()) {
+            Batch batch = expireBatch(time, afterId);
+            batches.increment();
+            total += batch.expired;
+            if (batch.scanned < batchSize) {
+                break;
+            }
+            afterId = batch.lastId;
+            position.set(afterId);
+        }
+        return total;
+    }
+
+    /**
+     * Обрабатывает одну порцию бронирований с ID больше указанного в отдельной транзакции.
+     */
+    private Batch expireBatch(LocalDateTime time, long afterId) {
+        Batch batch = transactionTemplate.execute(status -> {
+            List<Booking> bookings = bookingRepository.findWaitingStartedBefore(time, afterId, batchSize);
+            if (bookings.isEmpty()) {
+                return new Batch(0, 0, afterId);
+            }
+            List<Long> ids = bookings.stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toList());
+            int count = bookingRepository.updateStatusByIdIn(ids, BookingStatus.WAITING, BookingStatus.EXPIRED);
+            LocalDateTime changed = LocalDateTime.now();
+            for (BookingStatusChange change : bookingRepository.findAllStatusChangesByIdIn(ids)) {
+                BookingEventDto event = BookingEventDto.builder()
+                        .bookingId(change.getBookingId())
+                        .itemId(change.getItemId())
+                        .bookerId(change.getBookerId())
+                        .ownerId(change.getOwnerId())
+                        .status(change.getStatus())
+                        .changed(changed)
+                        .build();
+                outboxWriter.record(OutboxEventType.BOOKING_EXPIRED, event.getBookingId(), event);
+                bookingEventBus.publish(event);
+            }
+            return new Batch(bookings.size(), count, ids.get(ids.size() - 1));
+        });
+        expired.increment(batch.expired);
+        return batch;
+    }
+
+    private void run() {
+        Timer.Sample sample = Timer.start();
+        try {
+            int count = expireStartedBefore(LocalDateTime.now());
+            if (count > 0) {
+                log.info("Просрочено {} неподтвержденных бронирований", count);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Не удалось перевести неподтвержденные бронирования в статус EXPIRED: {}", e.getMessage());
+        } finally {
+            sample.stop(duration);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Результат обработки порции: количество просмотренных и просроченных бронирований и ID последнего из них.
+     */
+    private static class Batch {
+        private final int scanned;
+        private final int expired;
+        private final long lastId;
+
+        private Batch(int scanned, int expired, long lastId) {
+            this.scanned = scanned;
+            this.expired = expired;
+            this.lastId = lastId;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 
@@ -15,7 +16,11 @@ public interface BookingService {
 
     BookingDtoOut findBookingByUserId(Long userId, Long bookingId);
 
-    List<BookingDtoOut> findAll(Long userId, String state, Integer from, Integer size);
+    String findBookingETag(Long userId, Long bookingId);
 
-    List<BookingDtoOut> findAllOwner(Long userId, String state, Integer from, Integer size);
+    List<BookingDtoOut> findAll(Long userId, String state, Integer from, Integer size, String after);
+
+    List<BookingDtoOut> findAllOwner(Long userId, String state, Integer from, Integer size, String after);
+
+    SseEmitter subscribe(Long userId);
 }
\ No newline at end of file
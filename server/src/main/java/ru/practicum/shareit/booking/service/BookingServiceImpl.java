@@ -2,9 +2,9 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
@@ -12,15 +12,24 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRole;
+import ru.practicum.shareit.booking.repository.BookingVersion;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,10 +41,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+
+    private static final List<BookingStatus> OVERLAPPING_STATUSES = List.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemRepository itemRepository;
-
+    private final ItemBookingTimeline itemBookingTimeline;
+    private final BookingEventBus bookingEventBus;
+    private final OutboxWriter outboxWriter;
 
     /**
      * Создает новое бронирование на основе переданных данных.
@@ -44,12 +59,13 @@ public class BookingServiceImpl implements BookingService {
      * @param bookingDto DTO объект, содержащий данные о бронировании.
      * @return DTO объект, содержащий данные о созданном бронировании.
      * @throws NotFoundException если предмет не найден.
+     * @throws ValidationException если период пересекается с другим бронированием вещи.
      */
     @Override
     @Transactional
     public BookingDtoOut add(Long userId, BookingDto bookingDto) {
         User user = UserMapper.toUser(userService.findById(userId));
-        Optional<Item> itemById = itemRepository.findById(bookingDto.getItemId());
+        Optional<Item> itemById = itemRepository.findByIdForUpdate(bookingDto.getItemId());
 
         if (itemById.isEmpty()) {
             throw new NotFoundException("Вещь не найдена.");
@@ -57,8 +73,17 @@ public class BookingServiceImpl implements BookingService {
 
         Item item = itemById.get();
         bookingValidation(bookingDto, user, item);
-        Booking booking = BookingMapper.toBooking(user, item, bookingDto);
-        return BookingMapper.toBookingOut(bookingRepository.save(booking));
+        Booking booking = bookingRepository.save(BookingMapper.toBooking(user, item, bookingDto));
+        // Вещь заблокирована до конца транзакции, поэтому пересекающееся бронирование не может быть
+        // создано одновременно ни этим, ни другим экземпляром сервера.
+        if (bookingRepository.existsOverlapping(item.getId(), booking.getId(), OVERLAPPING_STATUSES,
+                booking.getStart(), booking.getEnd())) {
+            throw new ValidationException("Вещь уже забронирована на указанный период.");
+        }
+        bookingEventBus.publish(booking);
+        BookingDtoOut result = BookingMapper.toBookingOut(booking);
+        outboxWriter.record(OutboxEventType.BOOKING_CREATED, result.getId(), result);
+        return result;
     }
 
     /**
@@ -76,7 +101,14 @@ public class BookingServiceImpl implements BookingService {
         assert booking != null;
         BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
         booking.setStatus(newStatus);
-        return BookingMapper.toBookingOut(bookingRepository.save(booking));
+        if (newStatus == BookingStatus.APPROVED) {
+            itemBookingTimeline.approve(booking);
+        }
+        Booking saved = bookingRepository.save(booking);
+        bookingEventBus.publish(saved);
+        BookingDtoOut result = BookingMapper.toBookingOut(saved);
+        outboxWriter.record(OutboxEventType.BOOKING_STATUS_CHANGED, result.getId(), result);
+        return result;
     }
 
     /**
@@ -95,54 +127,52 @@ public class BookingServiceImpl implements BookingService {
     }
 
     /**
-     * Возвращает список всех бронирований пользователя или владельца,
-     * в зависимости от переданного идентификатора.
+     * Возвращает ETag бронирования, не загружая вещь и автора бронирования целиком.
+     * ETag меняется при изменении бронирования, вещи или имени и почты автора бронирования:
+     * имя и почта входят в ETag в виде SHA-256, чтобы не раскрывать их и не допускать совпадений хэшей.
      *
-     * @param bookerId Идентификатор пользователя или владельца.
-     * @param bookingState    Статус бронирований для фильтрации.
-     * @param from     Индекс начала списка для пагинации.
-     * @param size     Размер списка для пагинации.
-     * @return Список DTO объектов, содержащих данные о бронированиях.
+     * @param userId    Идентификатор пользователя, выполняющего запрос.
+     * @param bookingId Идентификатор бронирования.
+     * @return ETag бронирования.
+     * @throws NotFoundException если бронирование не найдено или пользователь не владелец и не автор бронирования.
      */
     @Override
     @Transactional
-    public List<BookingDtoOut> findAll(Long bookerId, String bookingState, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        userService.findById(bookerId);
-        switch (validState(bookingState)) {
-            case ALL:
-                return bookingRepository.findAllBookingsByBookerId(bookerId, pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-            case CURRENT:
-                return bookingRepository.findAllCurrentBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-
-            case PAST:
-                return bookingRepository.findAllPastBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-
-            case FUTURE:
-                return bookingRepository.findAllFutureBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-
-            case WAITING:
-                return bookingRepository.findAllWaitingBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
+    public String findBookingETag(Long userId, Long bookingId) {
+        BookingVersion version = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронь не найдена."));
+        if (!version.getBookerId().equals(userId) && !version.getOwnerId().equals(userId)) {
+            throw new NotFoundException("Пользователь не владелец и не автор бронирования ");
+        }
+        return "booking-" + bookingId + "-" + version.getVersion() + "-" + version.getItemVersion() + "-" +
+                sha256(version.getBookerName() + '\0' + version.getBookerEmail());
+    }
 
-            case REJECTED:
-                return bookingRepository.findAllRejectedBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
+    /**
+     * Возвращает список всех бронирований пользователя с заданным состоянием.
+     *
+     * @param bookerId     Идентификатор пользователя.
+     * @param bookingState Статус бронирований для фильтрации.
+     * @param from         Индекс начала списка для пагинации.
+     * @param size         Размер списка для пагинации.
+     * @param after        Курсор последнего полученного бронирования; если задан, параметр from не используется.
+     * @return Список DTO объектов, содержащих данные о бронированиях.
+     */
+    @Override
+    @Transactional
+    public List<BookingDtoOut> findAll(Long bookerId, String bookingState, Integer from, Integer size, String after) {
+        return findAllByRole(BookingRole.BOOKER, bookerId, bookingState, from, size, after);
+    }
+
     /**
      * Возвращает список всех бронирований владельца с заданным состоянием.
      *
@@ -150,45 +180,51 @@ public class BookingServiceImpl implements BookingService {
      * @param bookingState    Статус бронирований для фильтрации.
      * @param from            Индекс начала списка для пагинации.
      * @param size            Размер списка для пагинации.
+     * @param after           Курсор последнего полученного бронирования; если задан, параметр from не используется.
      * @return Список DTO объектов, содержащих данные о бронированиях.
      */
     @Override
     @Transactional
-    public List<BookingDtoOut> findAllOwner(Long ownerId, String bookingState, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        userService.findById(ownerId);
-        switch (validState(bookingState)) {
-            case ALL:
-                return bookingRepository.findAllBookingsByOwnerId(ownerId, pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-            case CURRENT:
-                return bookingRepository.findAllCurrentBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-
-            case PAST:
-                return bookingRepository.findAllPastBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-
-            case FUTURE:
-                return bookingRepository.findAllFutureBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
+    public List<BookingDtoOut> findAllOwner(Long ownerId, String bookingState, Integer from, Integer size, String after) {
+        return findAllByRole(BookingRole.OWNER, ownerId, bookingState, from, size, after);
+    }
 
-            case WAITING:
-                return bookingRepository.findAllWaitingBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
+    /**
+     * Подписывает пользователя на изменения статусов его бронирований и бронирований его вещей.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Поток событий изменения статуса бронирований.
+     * @throws NotFoundException если пользователь не найден.
+     */
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        userService.checkExists(userId);
+        return bookingEventBus.subscribe(userId);
+    }
 
-            case REJECTED:
-                return bookingRepository.findAllRejectedBookingsByOwnerId(ownerId, pageable).stream()
-                        .map(BookingMapper::toBookingOut)
-                        .collect(Collectors.toList());
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
-        }
+    /**
+     * Возвращает список бронирований пользователя в заданной роли.
+     *
+     * @param role         Роль пользователя: автор бронирований или владелец вещей.
+     * @param userId       Идентификатор пользователя.
+     * @param bookingState Статус бронирований для фильтрации.
+     * @param from         Индекс начала списка для пагинации.
+     * @param size         Размер списка для пагинации.
+     * @param after        Курсор последнего полученного бронирования или null.
+     * @return Список DTO объектов, содержащих данные о бронированиях.
+     */
+    private List<BookingDtoOut> findAllByRole(BookingRole role, Long userId, String bookingState, Integer from,
+                                              Integer size, String after) {
+        userService.checkExists(userId);
+        BookingState state = validState(bookingState);
+        List<Booking> bookings = after == null
+                ? bookingRepository.findAllByState(role, userId, state, LocalDateTime.now(),
+                PageRequest.of(from / size, size))
+                : bookingRepository.findAllByStateAfter(role, userId, state, LocalDateTime.now(),
+                PageCursor.from(after), size);
+        return bookings.stream()
+                .map(BookingMapper::toBookingOut)
+                .collect(Collectors.toList());
     }
 
     /**
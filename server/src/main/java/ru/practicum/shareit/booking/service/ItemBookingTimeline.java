@@ -0,0 +1,161 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Класс ItemBookingTimeline, представляющий кэш последнего и следующего подтвержденного бронирования вещей.
+ * Вещи, отсутствующие в кэше, загружаются запросом findLastAndNextApprovedBookings, который возвращает
+ * не более двух бронирований на вещь. Запись хранит даты начала найденных бронирований и используется,
+ * пока заданный момент времени лежит между ними, то есть пока последнее и следующее бронирование не сменились.
+ * Подтверждение бронирования на этом экземпляре сервера удаляет запись вещи после фиксации транзакции.
+ * Подтверждения на других экземплярах становятся видны не позднее shareit.booking.timeline.ttl.
+ * Количество вещей в кэше ограничено, при переполнении вытесняются давно не использованные вещи.
+ */
+@Component
+public class ItemBookingTimeline {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, Window> windows;
+    private final Object lock = new Object();
+    private volatile long invalidations;
+
+    public ItemBookingTimeline(BookingRepository bookingRepository,
+                               @Value("${shareit.booking.timeline.capacity:10000}") int capacity,
+                               @Value("${shareit.booking.timeline.ttl:10s}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Возвращает идентификаторы последнего и следующего подтвержденного бронирования для каждой вещи.
+     * Вещи, отсутствующие в кэше, загружаются из базы данных одним запросом.
+     *
+     * @param itemIds - идентификаторы вещей
+     * @param time    - момент времени, относительно которого ищутся бронирования
+     * @return список идентификаторов бронирований, не более двух на вещь
+     */
+    public List<Long> findLastAndNextBookingIds(Collection<Long> itemIds, LocalDateTime time) {
+        long stamp = invalidations;
+        List<Long> bookingIds = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            Window window = windows.getIfPresent(itemId);
+            if (window != null && window.covers(time)) {
+                window.addBookingIds(bookingIds);
+            } else {
+                missing.add(itemId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Window window : load(missing, time, stamp).values()) {
+                window.addBookingIds(bookingIds);
+            }
+        }
+        return bookingIds;
+    }
+
+    /**
+     * Удаляет вещь подтвержденного бронирования из кэша после фиксации текущей транзакции.
+     * Загрузки, начатые до фиксации, не сохраняются в кэш, так как могли не увидеть это бронирование.
+     *
+     * @param booking - объект бронирования
+     */
+    public void approve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                invalidations++;
+                windows.invalidate(itemId);
+            }
+        });
+    }
+
+    /**
+     * Загружает последнее и следующее бронирование вещей из базы данных и помещает их в кэш,
+     * если с начала загрузки ни одно бронирование не было подтверждено.
+     *
+     * @param itemIds - идентификаторы вещей
+     * @param time    - момент времени, относительно которого ищутся бронирования
+     * @param stamp   - счетчик подтверждений на момент начала загрузки
+     * @return загруженные записи вещей
+     */
+    private Map<Long, Window> load(List<Long> itemIds, LocalDateTime time, long stamp) {
+        Map<Long, Booking> last = new HashMap<>();
+        Map<Long, Booking> next = new HashMap<>();
+        for (Booking booking : bookingRepository.findLastAndNextApprovedBookings(itemIds, time)) {
+            Long itemId = booking.getItem().getId();
+            if (booking.getStart().isAfter(time)) {
+                next.put(itemId, booking);
+            } else {
+                last.put(itemId, booking);
+            }
+        }
+
+        Map<Long, Window> loaded = new HashMap<>();
+        for (Long itemId : itemIds) {
+            loaded.put(itemId, Window.of(last.get(itemId), next.get(itemId)));
+        }
+        synchronized (lock) {
+            if (stamp == invalidations) {
+                windows.putAll(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Неизменяемая запись вещи: последнее и следующее бронирование и даты их начала.
+     * Отсутствующее бронирование обозначается null.
+     */
+    private static class Window {
+        private final Long lastId;
+        private final LocalDateTime lastStart;
+        private final Long nextId;
+        private final LocalDateTime nextStart;
+
+        private Window(Long lastId, LocalDateTime lastStart, Long nextId, LocalDateTime nextStart) {
+            this.lastId = lastId;
+            this.lastStart = lastStart;
+            this.nextId = nextId;
+            this.nextStart = nextStart;
+        }
+
+        static Window of(Booking last, Booking next) {
+            return new Window(last == null ? null : last.getId(), last == null ? null : last.getStart(),
+                    next == null ? null : next.getId(), next == null ? null : next.getStart());
+        }
+
+        /**
+         * Проверяет, что для заданного момента последнее и следующее бронирование те же, что при загрузке.
+         */
+        boolean covers(LocalDateTime time) {
+            return (lastStart == null || !time.isBefore(lastStart)) && (nextStart == null || time.isBefore(nextStart));
+        }
+
+        void addBookingIds(List<Long> result) {
+            if (lastId != null) {
+                result.add(lastId);
+            }
+            if (nextId != null) {
+                result.add(nextId);
+            }
+        }
+    }
+}
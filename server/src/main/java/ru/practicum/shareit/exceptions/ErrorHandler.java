@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -40,6 +41,20 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Обработчик исключения OptimisticLockingFailureException, возникающего, когда данные изменены
+     * другой транзакцией, например бронирование подтверждается в момент его перевода в статус EXPIRED.
+     *
+     * @param e Исключение OptimisticLockingFailureException.
+     * @return Объект ErrorResponse с сообщением об ошибке.
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        log.warn("Получен статус 409 CONFLICT {}", e.getMessage(), e);
+        return new ErrorResponse("Данные были изменены другим запросом, повторите запрос.");
+    }
+
     /**
      * Обработчик других исключений.
      *
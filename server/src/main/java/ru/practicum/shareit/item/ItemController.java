@@ -2,8 +2,10 @@ package ru.practicum.shareit.item;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -11,6 +13,7 @@ import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @RestController
@@ -54,15 +57,25 @@ public class ItemController {
     /**
      * Возвращает информацию о предмете с заданным ID.
      *
-     * @param userId - ID пользователя из заголовка запроса
-     * @param itemId - ID предмета, который нужно найти
-     * @return объект ItemDtoOut с информацией о предмете
+     * Если ETag из If-None-Match совпадает с текущим, возвращается ответ 304 без загрузки комментариев.
+     *
+     * @param userId  - ID пользователя из заголовка запроса
+     * @param itemId  - ID предмета, который нужно найти
+     * @param request - текущий запрос
+     * @return объект ItemDtoOut с информацией о предмете или null, если предмет не изменился
      */
     @GetMapping("/{itemId}")
-    public ItemDtoOut findById(@RequestHeader(USER_HEADER) Long userId,
-                               @PathVariable("itemId") Long itemId) {
+    public ResponseEntity<ItemDtoOut> findById(@RequestHeader(USER_HEADER) Long userId,
+                                               @PathVariable("itemId") Long itemId,
+                                               WebRequest request) {
         log.info("GET Запрос на получение предмета с id = {} пользователем с id = {} ", itemId, userId);
-        return itemService.findItemById(userId, itemId);
+        Optional<String> eTag = itemService.findItemETag(userId, itemId);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        eTag.ifPresent(response::eTag);
+        return response.body(itemService.findItemById(userId, itemId));
     }
 
     /**
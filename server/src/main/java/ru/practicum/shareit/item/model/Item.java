@@ -27,18 +27,22 @@ public class Item {
     @Column(name = "available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private ItemRequest request;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Item(String name, String description, Boolean available) {
         this.name = name;
         this.description = description;
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -10,7 +11,9 @@ import java.util.List;
  * Расширяет JpaRepository для наследования базовых методов работы с базой данных.
  */
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemId(Long itemId);
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findAllByItemIdIn(List<Long> itemIds);
 }
\ No newline at end of file
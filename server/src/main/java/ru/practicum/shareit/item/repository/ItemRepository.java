@@ -3,10 +3,15 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс ItemRepository, представляющий репозиторий для работы с сущностью Item.
@@ -20,7 +25,40 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "lower(i.description) like lower(concat('%', ?1, '%') ))")
     List<Item> search(String text, Pageable pageable);
 
+    @Query(value = "SELECT i.* FROM items as i, " +
+            "plainto_tsquery('russian', ?1) || plainto_tsquery('english', ?1) as q " +
+            "WHERE i.available = true " +
+            "AND i.search_vector @@ q " +
+            "ORDER BY ts_rank(i.search_vector, q) DESC, i.id", nativeQuery = true)
+    List<Item> searchFullText(String text, Pageable pageable);
+
     List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
     Page<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
-}
\ No newline at end of file
+
+    List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
+
+    @Query("select i.id as id, i.name as name, i.description as description " +
+            "from Item as i " +
+            "where i.available = true " +
+            "order by i.id")
+    List<ItemText> findAllAvailableTexts();
+
+    @Modifying
+    @Query("update Item as i set i.version = i.version + 1 where i.id = ?1")
+    void incrementVersion(Long itemId);
+
+    @Modifying
+    @Query("update Item as i set i.version = i.version + 1 " +
+            "where i.id in (select c.item.id from Comment as c where c.author.id = ?1)")
+    void incrementVersionOfCommentedItems(Long authorId);
+
+    /**
+     * Возвращает вещь и блокирует ее до конца транзакции.
+     * Используется, чтобы бронирования одной вещи проверялись на пересечение по очереди,
+     * в том числе на разных экземплярах сервера.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+}
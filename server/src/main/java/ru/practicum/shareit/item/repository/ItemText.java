@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+/**
+ * Проекция ItemText, содержащая идентификатор вещи и ее текстовые поля.
+ * Используется для построения поискового индекса без загрузки связанных сущностей.
+ */
+public interface ItemText {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Класс ItemNgramIndex, представляющий инвертированный индекс триграмм по названиям и описаниям вещей.
+ * Для каждой триграммы хранится отсортированный массив идентификаторов вещей, в тексте которых она встречается.
+ * Поиск пересекает списки триграмм запроса и проверяет кандидатов на вхождение подстроки,
+ * поэтому результат совпадает с поиском по подстроке в названии или описании.
+ */
+@Component
+public class ItemNgramIndex {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private Map<Long, Postings> postings = new HashMap<>();
+    private Map<Integer, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавляет вещь в индекс или заменяет ранее проиндексированные тексты вещи.
+     *
+     * @param id          - ID вещи
+     * @param name        - название вещи
+     * @param description - описание вещи
+     */
+    public void put(int id, String name, String description) {
+        String[] document = {normalize(name), normalize(description)};
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, document);
+            for (String text : document) {
+                for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                    postings.computeIfAbsent(gram(text, i), key -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет вещь из индекса.
+     *
+     * @param id - ID вещи
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все вещи из индекса.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заменяет содержимое индекса содержимым другого индекса, построенного заранее.
+     * Поиск до замены выполняется по прежнему содержимому, после замены - по новому.
+     * Переданный индекс после вызова изменять нельзя.
+     *
+     * @param other - заполненный индекс
+     */
+    public void replaceWith(ItemNgramIndex other) {
+        lock.writeLock().lock();
+        try {
+            postings = other.postings;
+            documents = other.documents;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает отсортированные по возрастанию идентификаторы вещей, название или описание которых
+     * содержит заданный текст без учета регистра.
+     *
+     * @param text - текст для поиска, не короче GRAM_LENGTH символов
+     * @return массив идентификаторов вещей
+     * @throws IllegalArgumentException - если текст короче GRAM_LENGTH символов
+     */
+    public int[] search(String text) {
+        String query = normalize(text);
+        if (query.length() < GRAM_LENGTH) {
+            throw new IllegalArgumentException("Текст поиска короче " + GRAM_LENGTH + " символов: " + text);
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+                Postings list = postings.get(gram(query, i));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            Postings smallest = lists.get(0);
+            int[] result = new int[smallest.size()];
+            int count = 0;
+            for (int i = 0; i < smallest.size(); i++) {
+                int id = smallest.get(i);
+                if (containsInAll(lists, id) && matches(documents.get(id), query)) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(int id) {
+        String[] document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String text : document) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                long key = gram(text, i);
+                Postings list = postings.get(key);
+                if (list != null && list.remove(id) && list.size() == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static boolean containsInAll(List<Postings> lists, int id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String[] document, String query) {
+        for (String text : document) {
+            if (text.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Кодирует три символа, начиная с заданной позиции, в одно число.
+     */
+    private static long gram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    /**
+     * Отсортированный по возрастанию список идентификаторов вещей одной триграммы.
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int position = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void append(int id) {
+            ensureCapacity();
+            ids[size++] = id;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemText;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Класс ItemSearchEngine, выполняющий поиск доступных вещей по тексту выбранным способом.
+ * Способ поиска задается свойством shareit.item.search.mode. В режиме NGRAM используется индекс триграмм,
+ * а запросы короче триграммы выполняются запросом к базе данных. Изменения вещей, сделанные этим экземпляром
+ * сервера, попадают в индекс сразу после фиксации транзакции; изменения, сделанные другими экземплярами,
+ * появляются после полной перезагрузки индекса из базы данных, которая выполняется раз в
+ * shareit.item.search.refresh-interval. В режиме FULLTEXT используется полнотекстовый поиск PostgreSQL
+ * по столбцу и индексу, которые создает скрипт schema-postgresql.sql при инициализации схемы. При запуске
+ * проверяется только их наличие: если их нет или база данных другая, например H2, поиск выполняется
+ * запросом LIKE.
+ */
+@Slf4j
+@Component
+public class ItemSearchEngine {
+
+    private static final String ITEMS_TABLE = "items";
+    private static final String SEARCH_COLUMN = "search_vector";
+    private static final String SEARCH_INDEX = "idx_items_search_vector";
+
+    private final ItemRepository itemRepository;
+    private final ItemNgramIndex ngramIndex;
+    private final DataSource dataSource;
+    private final ItemSearchMode mode;
+    private final long refreshIntervalMillis;
+    private final Object refreshLock = new Object();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-search-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Map<Integer, Runnable> changesDuringRefresh;
+    private volatile boolean fullTextReady;
+
+    public ItemSearchEngine(ItemRepository itemRepository,
+                            ItemNgramIndex ngramIndex,
+                            DataSource dataSource,
+                            @Value("${shareit.item.search.mode:LIKE}") ItemSearchMode mode,
+                            @Value("${shareit.item.search.refresh-interval:1m}") Duration refreshInterval) {
+        this.itemRepository = itemRepository;
+        this.ngramIndex = ngramIndex;
+        this.dataSource = dataSource;
+        this.mode = mode;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+    }
+
+    /**
+     * Подготавливает выбранный способ поиска после запуска приложения: заполняет индекс триграмм
+     * и запускает его периодическую перезагрузку или проверяет наличие столбца tsvector и GIN-индекса
+     * для полнотекстового поиска.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (mode == ItemSearchMode.NGRAM) {
+            int count = refresh();
+            log.info("Индекс поиска вещей заполнен, загружено {} вещей", count);
+            if (refreshIntervalMillis > 0) {
+                executor.scheduleWithFixedDelay(this::runRefresh, refreshIntervalMillis, refreshIntervalMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        } else if (mode == ItemSearchMode.FULLTEXT) {
+            fullTextReady = isFullTextSchemaReady();
+            if (fullTextReady) {
+                log.info("Полнотекстовый поиск вещей подготовлен");
+            }
+        }
+    }
+
+    /**
+     * Перезагружает индекс триграмм из базы данных. Новый индекс строится отдельно и заменяет текущий целиком,
+     * поэтому поиск во время перезагрузки продолжает работать. Изменения, зафиксированные этим экземпляром
+     * сервера во время чтения из базы данных, повторно применяются к новому индексу.
+     *
+     * @return количество загруженных вещей
+     */
+    public int refresh() {
+        synchronized (refreshLock) {
+            changesDuringRefresh = new HashMap<>();
+        }
+        try {
+            List<ItemText> items = itemRepository.findAllAvailableTexts();
+            ItemNgramIndex fresh = new ItemNgramIndex();
+            items.forEach(item -> fresh.put(Math.toIntExact(item.getId()), item.getName(), item.getDescription()));
+            synchronized (refreshLock) {
+                ngramIndex.replaceWith(fresh);
+                changesDuringRefresh.values().forEach(Runnable::run);
+            }
+            return items.size();
+        } finally {
+            synchronized (refreshLock) {
+                changesDuringRefresh = null;
+            }
+        }
+    }
+
+    /**
+     * Выполняет поиск доступных вещей, название или описание которых содержит заданный текст.
+     *
+     * @param text     - текст для поиска
+     * @param pageable - параметры пагинации
+     * @return список найденных вещей
+     */
+    public List<Item> search(String text, Pageable pageable) {
+        if (mode == ItemSearchMode.FULLTEXT && fullTextReady) {
+            return itemRepository.searchFullText(text, pageable);
+        }
+        if (mode != ItemSearchMode.NGRAM || text.length() < ItemNgramIndex.GRAM_LENGTH) {
+            return itemRepository.search(text, pageable);
+        }
+        int[] ids = ngramIndex.search(text);
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = Arrays.stream(ids, from, to)
+                .mapToObj(Long::valueOf)
+                .collect(Collectors.toList());
+        return itemRepository.findAllById(pageIds).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Обновляет вещь в индексе триграмм после фиксации текущей транзакции.
+     * Недоступные для бронирования вещи удаляются из индекса.
+     *
+     * @param item - объект вещи
+     */
+    public void index(Item item) {
+        if (mode != ItemSearchMode.NGRAM) {
+            return;
+        }
+        int id = Math.toIntExact(item.getId());
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        Runnable change = () -> {
+            if (available) {
+                ngramIndex.put(id, name, description);
+            } else {
+                ngramIndex.remove(id);
+            }
+        };
+        AfterCommit.run(() -> {
+            synchronized (refreshLock) {
+                change.run();
+                if (changesDuringRefresh != null) {
+                    changesDuringRefresh.put(id, change);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runRefresh() {
+        try {
+            int count = refresh();
+            log.debug("Индекс поиска вещей перезагружен, загружено {} вещей", count);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перезагрузить индекс поиска вещей: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Проверяет, что приложение работает с базой данных PostgreSQL и в таблице вещей есть столбец
+     * и индекс полнотекстового поиска.
+     *
+     * @return true, если полнотекстовый поиск можно использовать
+     */
+    private boolean isFullTextSchemaReady() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            if (!"PostgreSQL".equals(metaData.getDatabaseProductName())) {
+                log.warn("Полнотекстовый поиск доступен только в PostgreSQL, используется поиск по подстроке");
+                return false;
+            }
+            if (!hasColumn(metaData) || !hasIndex(metaData)) {
+                log.warn("В таблице {} нет столбца {} или индекса {}, используется поиск по подстроке",
+                        ITEMS_TABLE, SEARCH_COLUMN, SEARCH_INDEX);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Не удалось проверить схему полнотекстового поиска: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, ITEMS_TABLE, SEARCH_COLUMN)) {
+            return columns.next();
+        }
+    }
+
+    private static boolean hasIndex(DatabaseMetaData metaData) throws SQLException {
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, ITEMS_TABLE, false, true)) {
+            while (indexes.next()) {
+                if (SEARCH_INDEX.equals(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.service;
+
+/**
+ * Перечисление ItemSearchMode, определяющее способ поиска вещей по тексту.
+ * Возможные значения:
+ * - LIKE: поиск запросом к базе данных по подстроке в названии или описании.
+ * - NGRAM: поиск по индексу триграмм в памяти приложения.
+ * - FULLTEXT: полнотекстовый поиск PostgreSQL с ранжированием по релевантности.
+ */
+public enum ItemSearchMode {
+    LIKE,
+    NGRAM,
+    FULLTEXT
+}
@@ -6,6 +6,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс ItemService, определяющий методы для работы с вещами
@@ -18,6 +19,8 @@ public interface ItemService {
 
     ItemDtoOut findItemById(Long userId, Long itemId);
 
+    Optional<String> findItemETag(Long userId, Long itemId);
+
     List<ItemDtoOut> findAll(Long userId, Integer from, Integer size);
 
     List<ItemDtoOut> search(Long userId, String text, Integer from, Integer size);
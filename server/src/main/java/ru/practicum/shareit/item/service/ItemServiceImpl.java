@@ -8,8 +8,8 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingTimeline;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -22,6 +22,8 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
@@ -30,6 +32,7 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -48,7 +51,11 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRequestRepository itemRequestRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final ItemBookingTimeline itemBookingTimeline;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemViewCache itemViewCache;
     private final UserService userService;
+    private final OutboxWriter outboxWriter;
 
     /**
      * Создает новую вещь на основе данных из объекта ItemDto и добавляет ее в базу данных.
@@ -69,7 +76,14 @@ public class ItemServiceImpl implements ItemService {
             item.setRequest(itemRequestRepository.getReferenceById(itemDto.getRequestId()));
         }
 
-        return ItemMapper.toItemDtoOut(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        if (itemDto.getRequestId() != null) {
+            itemRequestRepository.incrementVersion(itemDto.getRequestId());
+        }
+        itemSearchEngine.index(savedItem);
+        ItemDtoOut result = ItemMapper.toItemDtoOut(savedItem);
+        outboxWriter.record(OutboxEventType.ITEM_CREATED, result.getId(), result);
+        return result;
     }
 
     /**
@@ -84,11 +98,11 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public ItemDtoOut update(Long userId, Long itemId, ItemDto itemDto) {
-        UserDto user = userService.findById(userId);
+        userService.checkExists(userId);
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Вещи с " + itemId + " не существует"));
 
-        if (!UserMapper.toUser(user).equals(item.getOwner())) {
+        if (!item.getOwner().getId().equals(userId)) {
             throw new NotFoundException("Пользователь с id = " + userId +
                     " не является собственником вещи id = " + itemId);
         }
@@ -105,11 +119,19 @@ public class ItemServiceImpl implements ItemService {
             item.setName(name);
         }
 
-        return ItemMapper.toItemDtoOut(item);
+        if (item.getRequest() != null) {
+            itemRequestRepository.incrementVersion(item.getRequest().getId());
+        }
+        itemSearchEngine.index(item);
+        itemViewCache.evict(itemId);
+        ItemDtoOut result = ItemMapper.toItemDtoOut(item);
+        outboxWriter.record(OutboxEventType.ITEM_UPDATED, itemId, result);
+        return result;
     }
 
     /**
      * Находит вещь по ее ID и возвращает объект ItemDtoOut с информацией о ней.
+     * Вещь с комментариями берется из кэша, бронирования добавляются только для владельца.
      *
      * @param userId - ID пользователя
      * @param itemId - ID вещи
@@ -119,32 +141,54 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public ItemDtoOut findItemById(Long userId, Long itemId) {
-        userService.findById(userId);
-        Optional<Item> itemGet = itemRepository.findById(itemId);
+        userService.checkExists(userId);
+        Optional<ItemViewCache.ItemView> view = itemViewCache.find(itemId);
 
-        if (itemGet.isEmpty()) {
+        if (view.isEmpty()) {
             throw new NotFoundException("У пользователя с id = " + userId + " не " +
                     "существует вещи с id = " + itemId);
         }
 
-        Item item = itemGet.get();
-        ItemDtoOut itemDtoOut = ItemMapper.toItemDtoOut(itemGet.get());
-        itemDtoOut.setComments(getAllItemComments(itemId));
+        ItemDtoOut itemDtoOut = view.get().toItemDtoOut();
 
-        if (!item.getOwner().getId().equals(userId)) {
+        if (!view.get().getOwnerId().equals(userId)) {
             return itemDtoOut;
         }
 
-        List<Booking> bookings = bookingRepository.findAllByItemAndStatusOrderByStartAsc(item, BookingStatus.APPROVED);
-        List<BookingDtoOut> bookingDTOList = bookings.stream()
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingDtoOut> bookingDTOList = bookingRepository.findAllByIdIn(
+                        itemBookingTimeline.findLastAndNextBookingIds(List.of(itemId), now)).stream()
                 .map(BookingMapper::toBookingOut)
                 .collect(toList());
 
-        itemDtoOut.setLastBooking(getLastBooking(bookingDTOList, LocalDateTime.now()));
-        itemDtoOut.setNextBooking(getNextBooking(bookingDTOList, LocalDateTime.now()));
+        itemDtoOut.setLastBooking(getLastBooking(bookingDTOList, now));
+        itemDtoOut.setNextBooking(getNextBooking(bookingDTOList, now));
         return itemDtoOut;
     }
 
+    /**
+     * Возвращает ETag вещи для пользователя, не являющегося ее владельцем. ETag меняется при изменении вещи
+     * и при добавлении комментария, поэтому его можно сравнить с If-None-Match, не загружая комментарии.
+     * Для владельца ETag не вычисляется: последнее и следующее бронирования зависят от текущего времени.
+     *
+     * @param userId - ID пользователя
+     * @param itemId - ID вещи
+     * @return ETag вещи или пустой Optional, если пользователь является владельцем
+     * @throws NotFoundException - если вещь или пользователь не найдены
+     */
+    @Override
+    @Transactional
+    public Optional<String> findItemETag(Long userId, Long itemId) {
+        userService.checkExists(userId);
+        ItemViewCache.ItemView view = itemViewCache.find(itemId)
+                .orElseThrow(() -> new NotFoundException("У пользователя с id = " + userId + " не " +
+                        "существует вещи с id = " + itemId));
+        if (view.getOwnerId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of("item-" + itemId + "-" + view.getVersion());
+    }
+
     /**
      * Находит все вещи пользователя по его ID и возвращает список объектов ItemDtoOut с информацией о них.
      *
@@ -156,9 +200,12 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public List<ItemDtoOut> findAll(Long userId, Integer from, Integer size) {
-        UserDto owner = userService.findById(userId);
+        userService.checkExists(userId);
         Pageable pageable = PageRequest.of(from / size, size);
         List<Item> itemList = itemRepository.findAllByOwnerId(userId, pageable);
+        if (itemList.isEmpty()) {
+            return Collections.emptyList();
+        }
         itemList.sort((o1, o2) -> Math.toIntExact(o1.getId() - o2.getId()));
         List<Long> idList = itemList.stream()
                 .map(Item::getId)
@@ -167,16 +214,16 @@ public class ItemServiceImpl implements ItemService {
                 .map(CommentMapper::toCommentDtoOut)
                 .collect(groupingBy(CommentDtoOut::getItemId, toList()));
 
-        Map<Long, List<BookingDtoOut>> bookings = bookingRepository.findAllByItemInAndStatusOrderByStartAsc(itemList,
-                        BookingStatus.APPROVED).stream()
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<BookingDtoOut>> bookings = bookingRepository.findAllByIdIn(
+                        itemBookingTimeline.findLastAndNextBookingIds(idList, now)).stream()
                 .map(BookingMapper::toBookingOut)
                 .collect(groupingBy(BookingDtoOut::getItemId, toList()));
 
         return itemList
                 .stream()
-                .map(item -> ItemMapper.toItemDtoOut(item, getLastBooking(bookings.get(item.getId()),
-                                LocalDateTime.now()), comments.get(item.getId()),
-                        getNextBooking(bookings.get(item.getId()), LocalDateTime.now())))
+                .map(item -> ItemMapper.toItemDtoOut(item, getLastBooking(bookings.get(item.getId()), now),
+                        comments.get(item.getId()), getNextBooking(bookings.get(item.getId()), now)))
                 .collect(toList());
     }
 
@@ -192,14 +239,14 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public List<ItemDtoOut> search(Long userId, String text, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Pageable pageable = PageRequest.of(from / size, size);
 
         if (text.isBlank()) {
             return Collections.emptyList();
         }
 
-        List<Item> itemList = itemRepository.search(text, pageable);
+        List<Item> itemList = itemSearchEngine.search(text, pageable);
         return itemList.stream()
                 .map(ItemMapper::toItemDtoOut)
                 .collect(toList());
@@ -234,7 +281,12 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("У пользователя с id   " + userId + " должно быть хотя бы одно бронирование предмета с id " + itemId);
         }
 
-        return CommentMapper.toCommentDtoOut(commentRepository.save(CommentMapper.toComment(commentDto, item, user)));
+        Comment comment = commentRepository.save(CommentMapper.toComment(commentDto, item, user));
+        itemRepository.incrementVersion(itemId);
+        itemViewCache.evict(itemId);
+        CommentDtoOut result = CommentMapper.toCommentDtoOut(comment);
+        outboxWriter.record(OutboxEventType.COMMENT_CREATED, itemId, result);
+        return result;
     }
 
     /**
@@ -280,7 +332,7 @@ public class ItemServiceImpl implements ItemService {
         }
         return bookings.stream()
                 .filter(bookingDTO -> bookingDTO.getStart().isAfter(time))
-                .findFirst()
+                .min(Comparator.comparing(BookingDtoOut::getStart))
                 .orElse(null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.CommentDtoOut;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Класс ItemViewCache, представляющий кэш вещей вместе с комментариями в том виде, в котором их видит
+ * любой пользователь, кроме владельца. Вещи, отсутствующие в кэше, загружаются из базы данных при обращении.
+ * Объем кэша ограничен суммарным оценочным размером записей в байтах, при переполнении вытесняются
+ * редко используемые вещи. Изменения на этом экземпляре сервера удаляют вещь из кэша сразу,
+ * изменения на других экземплярах становятся видны не позднее shareit.item.view-cache.ttl.
+ * Количество попаданий, промахов и вытеснений публикуется в метриках cache.* с тегом cache=itemView.
+ */
+@Component
+public class ItemViewCache {
+
+    private static final String CACHE_NAME = "itemView";
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int COMMENT_OVERHEAD = 128;
+
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final Cache<Long, ItemView> views;
+    private final Object lock = new Object();
+    private volatile long invalidations;
+
+    public ItemViewCache(ItemRepository itemRepository,
+                         CommentRepository commentRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${shareit.item.view-cache.max-weight:33554432}") long maxWeight,
+                         @Value("${shareit.item.view-cache.ttl:30s}") Duration ttl) {
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.views = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long itemId, ItemView view) -> (int) Math.min(view.weight, Integer.MAX_VALUE))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, CACHE_NAME);
+        Gauge.builder("cache.weight", this, ItemViewCache::weight).tag("cache", CACHE_NAME).baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает вещь с комментариями из кэша или загружает ее из базы данных.
+     *
+     * @param itemId - ID вещи
+     * @return вещь с комментариями или пустой Optional, если вещи не существует
+     */
+    public Optional<ItemView> find(Long itemId) {
+        long stamp = invalidations;
+        ItemView cached = views.getIfPresent(itemId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            return Optional.empty();
+        }
+        ItemView view = ItemView.of(item.get(), commentRepository.findAllByItemId(itemId));
+        synchronized (lock) {
+            if (stamp == invalidations) {
+                views.put(itemId, view);
+            }
+        }
+        return Optional.of(view);
+    }
+
+    /**
+     * Удаляет вещь из кэша сразу и повторно после фиксации текущей транзакции,
+     * чтобы не сохранить в кэше данные, прочитанные до фиксации изменений.
+     *
+     * @param itemId - ID вещи
+     */
+    public void evict(Long itemId) {
+        Runnable action = () -> {
+            synchronized (lock) {
+                invalidations++;
+                views.invalidate(itemId);
+            }
+        };
+        action.run();
+        AfterCommit.run(action);
+    }
+
+    /**
+     * Удаляет из кэша после фиксации текущей транзакции вещи, владельцем или автором комментария
+     * к которым является пользователь.
+     *
+     * @param userId - ID пользователя
+     */
+    public void evictUser(Long userId) {
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                invalidations++;
+                views.asMap().values()
+                        .removeIf(view -> view.getOwnerId().equals(userId) || view.authorIds.contains(userId));
+            }
+        });
+    }
+
+    private double weight() {
+        return views.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0))
+                .orElse(0L);
+    }
+
+    /**
+     * Неизменяемый снимок вещи с комментариями.
+     */
+    public static class ItemView {
+        private final Long ownerId;
+        private final Long version;
+        private final ItemDtoOut item;
+        private final Set<Long> authorIds;
+        private final long weight;
+
+        private ItemView(Long ownerId, Long version, ItemDtoOut item, Set<Long> authorIds, long weight) {
+            this.ownerId = ownerId;
+            this.version = version;
+            this.item = item;
+            this.authorIds = authorIds;
+            this.weight = weight;
+        }
+
+        public static ItemView of(Item item, List<Comment> comments) {
+            List<CommentDtoOut> commentsOut = comments.stream()
+                    .map(CommentMapper::toCommentDtoOut)
+                    .collect(Collectors.toUnmodifiableList());
+            Set<Long> authorIds = comments.stream()
+                    .map(comment -> comment.getAuthor().getId())
+                    .collect(Collectors.toUnmodifiableSet());
+            ItemDtoOut itemDtoOut = ItemMapper.toItemDtoOut(item);
+            itemDtoOut.setComments(commentsOut);
+
+            long weight = ENTRY_OVERHEAD + 2L * (length(item.getName()) + length(item.getDescription()));
+            for (CommentDtoOut comment : commentsOut) {
+                weight += COMMENT_OVERHEAD + 2L * (length(comment.getText()) + length(comment.getAuthorName()));
+            }
+            return new ItemView(item.getOwner().getId(), item.getVersion(), itemDtoOut, authorIds, weight);
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        /**
+         * Возвращает версию вещи, с которой был сделан снимок.
+         */
+        public Long getVersion() {
+            return version;
+        }
+
+        /**
+         * Возвращает новый объект ItemDtoOut, который можно изменять, не затрагивая кэш.
+         */
+        public ItemDtoOut toItemDtoOut() {
+            return ItemDtoOut.builder()
+                    .id(item.getId())
+                    .name(item.getName())
+                    .description(item.getDescription())
+                    .available(item.getAvailable())
+                    .comments(new ArrayList<>(item.getComments()))
+                    .requestId(item.getRequestId())
+                    .build();
+        }
+
+        private static int length(String text) {
+            return text == null ? 0 : text.length();
+        }
+    }
+}
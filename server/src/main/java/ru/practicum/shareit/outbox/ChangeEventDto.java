@@ -0,0 +1,42 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие изменения данных в том виде, в котором оно публикуется получателям.
+ * Номер события уникален и приблизительно соответствует порядку изменений, получатели могут отбрасывать
+ * повторно полученные события по нему. Версия сущности точно задает порядок событий одной сущности:
+ * она увеличивается на единицу с каждым событием, поэтому пропуск версии означает отложенное событие.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChangeEventDto {
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private Long aggregateVersion;
+    private OutboxEventType type;
+    @JsonRawValue
+    private String payload;
+    private LocalDateTime created;
+
+    public static ChangeEventDto of(OutboxEvent event) {
+        return ChangeEventDto.builder()
+                .id(event.getId())
+                .aggregateType(event.getAggregateType())
+                .aggregateId(event.getAggregateId())
+                .aggregateVersion(event.getAggregateVersion())
+                .type(event.getType())
+                .payload(event.getPayload())
+                .created(event.getCreated())
+                .build();
+    }
+}
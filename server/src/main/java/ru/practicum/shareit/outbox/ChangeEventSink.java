@@ -0,0 +1,13 @@
+package ru.practicum.shareit.outbox;
+
+import java.util.List;
+
+/**
+ * Интерфейс ChangeEventSink, определяющий получателя событий изменения данных.
+ * События порции передаются в порядке номеров, который лишь приблизительно совпадает с порядком фиксации
+ * изменений. Если метод завершился исключением, те же события
+ * будут переданы повторно, поэтому получатель должен быть готов к повторам.
+ */
+public interface ChangeEventSink {
+    void publish(List<ChangeEventDto> events);
+}
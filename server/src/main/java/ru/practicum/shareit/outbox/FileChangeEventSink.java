@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Получатель, дописывающий события изменения данных в файл по одному JSON-объекту в строке.
+ */
+@RequiredArgsConstructor
+public class FileChangeEventSink implements ChangeEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    @Override
+    public synchronized void publish(List<ChangeEventDto> events) {
+        List<String> lines = new ArrayList<>(events.size());
+        try {
+            for (ChangeEventDto event : events) {
+                lines.add(objectMapper.writeValueAsString(event));
+            }
+            Files.write(path, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
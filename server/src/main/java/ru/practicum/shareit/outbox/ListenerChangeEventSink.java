@@ -0,0 +1,21 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+/**
+ * Получатель, публикующий события изменения данных внутри приложения.
+ * Слушатели вызываются синхронно: исключение слушателя приводит к повторной публикации событий.
+ */
+@RequiredArgsConstructor
+public class ListenerChangeEventSink implements ChangeEventSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
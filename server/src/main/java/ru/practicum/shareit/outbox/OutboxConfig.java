@@ -0,0 +1,38 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Класс OutboxConfig, создающий получателя событий изменения данных, выбранного свойством shareit.outbox.sink.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    public ChangeEventSink changeEventSink(@Value("${shareit.outbox.sink:LISTENER}") OutboxSinkType type,
+                                           @Value("${shareit.outbox.file.path:outbox.jsonl}") String path,
+                                           @Value("${shareit.outbox.webhook.url:}") String url,
+                                           @Value("${shareit.outbox.webhook.timeout:5s}") Duration timeout,
+                                           ApplicationEventPublisher publisher,
+                                           ObjectMapper objectMapper) {
+        switch (type) {
+            case FILE:
+                return new FileChangeEventSink(objectMapper, Path.of(path));
+            case WEBHOOK:
+                if (url.isBlank()) {
+                    throw new IllegalArgumentException("Не указан адрес получателя событий shareit.outbox.webhook.url");
+                }
+                return new WebhookChangeEventSink(objectMapper, URI.create(url), timeout);
+            default:
+                return new ListenerChangeEventSink(publisher);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Событие изменения данных, записанное в той же транзакции, что и само изменение.
+ * Порядковый номер присваивается при вставке события и приблизительно задает порядок публикации.
+ * Версия сущности увеличивается на единицу с каждым событием сущности и точно задает порядок ее изменений.
+ * Событие, которое не удалось опубликовать shareit.outbox.relay.max-attempts раз, откладывается
+ * и больше не публикуется.
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@Entity
+@Table(name = "outbox", schema = "public")
+public class OutboxEvent {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "aggregate_version", nullable = false)
+    private Long aggregateVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventType type;
+
+    @Column(name = "payload", nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "parked", nullable = false)
+    private boolean parked;
+
+    public OutboxEvent(OutboxEventType type, Long aggregateId, Long aggregateVersion, String payload,
+                       LocalDateTime created) {
+        this.aggregateType = type.getAggregateType();
+        this.aggregateId = aggregateId;
+        this.aggregateVersion = aggregateVersion;
+        this.type = type;
+        this.payload = payload;
+        this.created = created;
+    }
+}
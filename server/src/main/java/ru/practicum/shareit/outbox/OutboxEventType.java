@@ -0,0 +1,27 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Перечисление OutboxEventType, определяющее типы событий изменения данных и сущность, к которой они относятся.
+ * События о комментариях относятся к вещи, чтобы получатели видели их в одном порядке с изменениями вещи.
+ */
+public enum OutboxEventType {
+    BOOKING_CREATED("booking"),
+    BOOKING_STATUS_CHANGED("booking"),
+    BOOKING_EXPIRED("booking"),
+    ITEM_CREATED("item"),
+    ITEM_UPDATED("item"),
+    COMMENT_CREATED("item"),
+    USER_CREATED("user"),
+    USER_UPDATED("user"),
+    USER_DELETED("user");
+
+    private final String aggregateType;
+
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
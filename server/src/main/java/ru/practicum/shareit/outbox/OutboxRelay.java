@@ -0,0 +1,179 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Класс OutboxRelay, публикующий события изменения данных из таблицы outbox.
+ * Раз в shareit.outbox.relay.interval самые ранние события читаются с блокировкой, передаются получателю
+ * и удаляются в одной транзакции, пока таблица не опустеет. Блокировка не дает другим экземплярам сервера
+ * публиковать те же события одновременно.
+ * События разных сущностей упорядочены только приблизительно: номер присваивается при вставке, а не при фиксации,
+ * поэтому транзакция, зафиксированная позже, может получить меньший номер. События одной сущности записываются
+ * по очереди под блокировкой счетчика ее версий, поэтому публикуются в порядке номеров и версий сущности.
+ * Если получатель не принял порцию, события порции публикуются по одному до первой ошибки: опубликованные
+ * события удаляются, а неудачной попытке события засчитывается ошибка. Событие, не опубликованное
+ * shareit.outbox.relay.max-attempts раз подряд, откладывается, чтобы не задерживать последующие события;
+ * у следующих событий той же сущности получатели увидят пропуск версии. Отложенные события остаются в таблице
+ * с признаком parked и могут быть возвращены в очередь вручную.
+ * Доставка выполняется хотя бы один раз, повторы получатели отбрасывают по номерам уже обработанных событий,
+ * а не по наибольшему полученному номеру.
+ * Получатель вызывается, пока строки порции заблокированы, поэтому медленный получатель задерживает публикацию
+ * на всех экземплярах. Транзакции изменений данных только добавляют строки в outbox и не ждут этой блокировки.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final ChangeEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long intervalMillis;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Counter published;
+    private final Counter failures;
+    private final Counter parked;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       ChangeEventSink sink,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${shareit.outbox.relay.interval:1s}") Duration interval,
+                       @Value("${shareit.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${shareit.outbox.relay.max-attempts:10}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.intervalMillis = interval.toMillis();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.published = Counter.builder("outbox.published")
+                .description("Опубликованные события изменения данных")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Неудачные попытки публикации событий изменения данных")
+                .register(meterRegistry);
+        this.parked = Counter.builder("outbox.parked")
+                .description("События изменения данных, отложенные после исчерпания попыток публикации")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает периодическую публикацию событий после запуска приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::relayAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Публикует очередную порцию событий и удаляет опубликованные события из таблицы.
+     * Если получатель не принял порцию, события публикуются по одному до первой ошибки.
+     *
+     * @return количество опубликованных событий
+     */
+    public int relay() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxRepository.findOldest(PageRequest.of(0, batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(events.stream()
+                        .map(ChangeEventDto::of)
+                        .collect(Collectors.toList()));
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Не удалось опубликовать порцию событий изменения данных: {}", e.getMessage());
+                return publishOneByOne(events);
+            }
+            outboxRepository.deleteAllByIdInBatch(events.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList()));
+            return events.size();
+        });
+        int result = count == null ? 0 : count;
+        published.increment(result);
+        return result;
+    }
+
+    /**
+     * Публикует события по одному в порядке номеров до первой ошибки и удаляет опубликованные события.
+     * Событию, на котором произошла ошибка, засчитывается неудачная попытка.
+     */
+    private int publishOneByOne(List<OutboxEvent> events) {
+        List<Long> publishedIds = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                sink.publish(List.of(ChangeEventDto.of(event)));
+            } catch (RuntimeException e) {
+                recordFailure(event, e);
+                break;
+            }
+            publishedIds.add(event.getId());
+        }
+        if (!publishedIds.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(publishedIds);
+        }
+        return publishedIds.size();
+    }
+
+    private void recordFailure(OutboxEvent event, RuntimeException e) {
+        event.setAttempts(event.getAttempts() + 1);
+        if (event.getAttempts() < maxAttempts) {
+            log.warn("Не удалось опубликовать событие {}, попытка {}: {}", event.getId(), event.getAttempts(),
+                    e.getMessage());
+            return;
+        }
+        event.setParked(true);
+        parked.increment();
+        log.error("Событие {} не опубликовано за {} попыток и отложено: {}", event.getId(), event.getAttempts(),
+                e.getMessage());
+    }
+
+    private void relayAll() {
+        try {
+            while (relay() == batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Не удалось опубликовать события изменения данных: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
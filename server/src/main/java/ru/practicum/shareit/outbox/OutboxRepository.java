@@ -0,0 +1,26 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+/**
+ * Интерфейс OutboxRepository, представляющий репозиторий для работы с неопубликованными событиями изменения данных.
+ */
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long>, OutboxRepositoryCustom {
+
+    /**
+     * Возвращает неопубликованные и не отложенные события с наименьшими номерами и блокирует их
+     * до конца транзакции. Пока события публикуются одним экземпляром сервера, другие экземпляры ждут
+     * и не публикуют их повторно. Номер присваивается при вставке события, а не при фиксации транзакции,
+     * поэтому порядок номеров только приблизительно совпадает с порядком фиксации изменений разных сущностей.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from OutboxEvent as e where e.parked = false order by e.id")
+    List<OutboxEvent> findOldest(Pageable pageable);
+
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Интерфейс OutboxRepositoryCustom, содержащий работу со счетчиками версий сущностей, к которым относятся события.
+ */
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Увеличивает версию сущности и блокирует ее счетчик до конца транзакции, поэтому транзакции,
+     * записывающие события одной сущности, получают версии и номера событий в порядке фиксации.
+     *
+     * @param aggregateType - тип сущности
+     * @param aggregateId   - ID сущности
+     * @return новая версия сущности, для первого события сущности - 1
+     */
+    long nextAggregateVersion(String aggregateType, Long aggregateId);
+}
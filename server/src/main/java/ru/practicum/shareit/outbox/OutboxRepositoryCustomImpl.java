@@ -0,0 +1,38 @@
+package ru.practicum.shareit.outbox;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Реализация интерфейса OutboxRepositoryCustom на основе SQL-запросов к таблице outbox_aggregates.
+ * Счетчик сущности создается ее первым событием; первое событие записывается в транзакции создания сущности,
+ * поэтому вставка счетчика не конкурирует с другими транзакциями.
+ */
+public class OutboxRepositoryCustomImpl implements OutboxRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long nextAggregateVersion(String aggregateType, Long aggregateId) {
+        int updated = entityManager.createNativeQuery("UPDATE outbox_aggregates SET version = version + 1 " +
+                        "WHERE aggregate_type = ?1 AND aggregate_id = ?2")
+                .setParameter(1, aggregateType)
+                .setParameter(2, aggregateId)
+                .executeUpdate();
+        if (updated == 0) {
+            entityManager.createNativeQuery("INSERT INTO outbox_aggregates (aggregate_type, aggregate_id, version) " +
+                            "VALUES (?1, ?2, 1)")
+                    .setParameter(1, aggregateType)
+                    .setParameter(2, aggregateId)
+                    .executeUpdate();
+            return 1;
+        }
+        Number version = (Number) entityManager.createNativeQuery("SELECT version FROM outbox_aggregates " +
+                        "WHERE aggregate_type = ?1 AND aggregate_id = ?2")
+                .setParameter(1, aggregateType)
+                .setParameter(2, aggregateId)
+                .getSingleResult();
+        return version.longValue();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox;
+
+/**
+ * Перечисление OutboxSinkType, определяющее, куда публикуются события изменения данных.
+ * Возможные значения:
+ * - LISTENER: события публикуются внутри приложения, их получают методы с @EventListener(ChangeEventDto.class).
+ * - FILE: события дописываются в файл по одному JSON-объекту в строке.
+ * - WEBHOOK: события отправляются POST запросом в виде JSON-массива на заданный адрес.
+ */
+public enum OutboxSinkType {
+    LISTENER,
+    FILE,
+    WEBHOOK
+}
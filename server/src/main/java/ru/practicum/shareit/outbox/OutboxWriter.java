@@ -0,0 +1,44 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс OutboxWriter, записывающий события изменения данных в таблицу outbox.
+ * Событие записывается только в транзакции изменения, поэтому оно сохраняется тогда и только тогда,
+ * когда фиксируется само изменение. Каждому событию присваивается следующая версия его сущности;
+ * счетчик версий сущности блокируется до конца транзакции, поэтому транзакции, изменяющие одну сущность,
+ * записывают события по очереди.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записывает событие изменения данных в текущей транзакции.
+     *
+     * @param type        - тип события
+     * @param aggregateId - ID измененной сущности
+     * @param payload     - данные сущности после изменения, сохраняются в виде JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType type, Long aggregateId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить событие " + type + " сущности " + aggregateId, e);
+        }
+        long version = outboxRepository.nextAggregateVersion(type.getAggregateType(), aggregateId);
+        outboxRepository.save(new OutboxEvent(type, aggregateId, version, json, LocalDateTime.now()));
+    }
+}
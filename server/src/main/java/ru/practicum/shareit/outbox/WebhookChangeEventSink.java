@@ -0,0 +1,62 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Получатель, отправляющий события изменения данных POST запросом в виде JSON-массива.
+ * Ответ со статусом не из диапазона 2xx считается ошибкой, и события будут отправлены повторно.
+ * Запрос выполняется, пока OutboxRelay удерживает блокировку строк порции, то есть до
+ * shareit.outbox.webhook.timeout на порцию: все это время другие экземпляры сервера не публикуют события.
+ * Таймаут стоит задавать небольшим, а получатель должен отвечать быстро и обрабатывать события асинхронно.
+ */
+public class WebhookChangeEventSink implements ChangeEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public WebhookChangeEventSink(ObjectMapper objectMapper, URI uri, Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.uri = uri;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public void publish(List<ChangeEventDto> events) {
+        HttpResponse<Void> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Отправка событий прервана", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Получатель событий " + uri + " ответил " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Value;
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Класс PageCursor, представляющий курсор для постраничного просмотра без OFFSET списков,
+ * отсортированных по убыванию даты и идентификатора, например бронирований или ленты запросов.
+ * Указывает на последнюю полученную запись: следующая страница начинается с записей,
+ * у которых (дата, id) строго меньше значений курсора.
+ * Строковое представление курсора имеет вид {@code <time>,<id>}, например {@code 2023-10-01T12:00:00.123456,15}.
+ * Время в курсоре хранится с полной точностью, поэтому клиентам следует передавать курсор из заголовка
+ * X-Next-Cursor, а не собирать его из дат в теле ответа.
+ */
+@Value
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    LocalDateTime time;
+    Long id;
+
+    /**
+     * Преобразует строковое представление курсора в объект PageCursor.
+     *
+     * @param token - строка вида {@code <time>,<id>}
+     * @return объект PageCursor
+     * @throws ValidationException - если строка имеет неверный формат
+     */
+    public static PageCursor from(String token) {
+        int separator = token.lastIndexOf(',');
+        if (separator < 0) {
+            throw new ValidationException("Некорректный курсор пагинации: " + token);
+        }
+        try {
+            return new PageCursor(LocalDateTime.parse(token.substring(0, separator).trim()),
+                    Long.valueOf(token.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор пагинации: " + token);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return time + "," + id;
+    }
+}
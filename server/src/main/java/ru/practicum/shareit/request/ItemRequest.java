@@ -3,13 +3,15 @@ package ru.practicum.shareit.request;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
+import lombok.ToString;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,15 +29,31 @@ public class ItemRequest {
     @Column(name = "description", nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User requester;
 
-    @CreationTimestamp
     @Column(name = "created")
     private LocalDateTime created;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany
     @JoinColumn(name = "request_id")
     private List<Item> items = new ArrayList<>();
+
+    /**
+     * Заполняет дату создания с точностью до микросекунды, с которой она хранится в базе данных,
+     * чтобы запросы, созданные в одну секунду, упорядочивались по времени создания.
+     */
+    @PrePersist
+    private void onCreate() {
+        if (created == null) {
+            created = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
 }
\ No newline at end of file
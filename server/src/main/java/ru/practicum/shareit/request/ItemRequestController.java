@@ -2,8 +2,11 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -52,25 +55,43 @@ public class ItemRequestController {
      * @param userId - ID пользователя из заголовка запроса
      * @param from - начальный индекс для пагинации (по умолчанию 0)
      * @param size - количество записей на страницу для пагинации (по умолчанию 10)
-     * @return список объектов ItemRequestDtoOut с информацией о запросах на предмет
+     * @param after - курсор последнего полученного запроса из заголовка X-Next-Cursor предыдущего ответа
+     *              (необязательный)
+     * @return список объектов ItemRequestDtoOut с информацией о запросах на предмет; если страница заполнена,
+     * в заголовке X-Next-Cursor передается курсор для получения следующей страницы
      */
     @GetMapping("/all")
-    public List<ItemRequestDtoOut> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
-                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                  @RequestParam(value = "size", defaultValue = "10") Integer size) {
-        return requestService.getAllRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestDtoOut>> getAllRequests(@RequestHeader(USER_HEADER) Long userId,
+                                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                  @RequestParam(value = "size", defaultValue = "10") Integer size,
+                                                                  @RequestParam(value = "after", required = false) String after) {
+        List<ItemRequestDtoOut> requests = requestService.getAllRequests(userId, from, size, after);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!requests.isEmpty() && requests.size() == size) {
+            ItemRequestDtoOut last = requests.get(requests.size() - 1);
+            response.header(PageCursor.NEXT_CURSOR_HEADER, new PageCursor(last.getCreated(), last.getId()).toString());
+        }
+        return response.body(requests);
     }
 
     /**
      * Возвращает информацию о запросе на предмет по его ID.
      *
+     * Если ETag из If-None-Match совпадает с текущим, возвращается ответ 304 без загрузки вещей.
+     *
      * @param userId - ID пользователя из заголовка запроса
      * @param requestId - ID запроса на предмет
-     * @return объект ItemRequestDtoOut с информацией о запросе на предмет
+     * @param request - текущий запрос
+     * @return объект ItemRequestDtoOut с информацией о запросе на предмет или null, если запрос не изменился
      */
     @GetMapping("/{requestId}")
-    public ItemRequestDtoOut get(@RequestHeader(USER_HEADER) Long userId,
-                                 @PathVariable Long requestId) {
-        return requestService.getRequestById(userId, requestId);
+    public ResponseEntity<ItemRequestDtoOut> get(@RequestHeader(USER_HEADER) Long userId,
+                                                 @PathVariable Long requestId,
+                                                 WebRequest request) {
+        String eTag = requestService.findRequestETag(userId, requestId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(requestService.getRequestById(userId, requestId));
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.ItemDtoOut;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.user.User;
@@ -60,4 +61,22 @@ public class ItemRequestMapper {
                 .items(itemsDtoOut)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Преобразует объект запроса на предмет и заранее загруженные вещи по запросу в объект ItemRequestDtoOut.
+     *
+     * @param request - объект запроса на предмет
+     * @param items   - вещи, добавленные в ответ на запрос
+     * @return объект ItemRequestDtoOut
+     */
+    public ItemRequestDtoOut toRequestDtoOut(ItemRequest request, List<Item> items) {
+        return ItemRequestDtoOut.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items.stream()
+                        .map(ItemMapper::toItemDtoOut)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -2,9 +2,13 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс ItemRequestRepository, представляющий репозиторий для работы с сущностью ItemRequest.
@@ -14,5 +18,18 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     List<ItemRequest> findAllByRequesterId(Long userId);
 
-    List<ItemRequest> findAllByRequester_IdNotOrderByCreatedDesc(Long userId, Pageable pageable);
+    List<ItemRequest> findAllByRequester_IdNotOrderByCreatedDescIdDesc(Long userId, Pageable pageable);
+
+    @Query("select r from ItemRequest as r " +
+            "where r.requester.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllOtherRequestsBefore(Long userId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("select r.version from ItemRequest as r where r.id = ?1")
+    Optional<Long> findVersionById(Long requestId);
+
+    @Modifying
+    @Query("update ItemRequest as r set r.version = r.version + 1 where r.id = ?1")
+    void incrementVersion(Long requestId);
 }
\ No newline at end of file
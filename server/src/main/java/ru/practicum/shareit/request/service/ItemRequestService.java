@@ -13,7 +13,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoOut> getUserRequests(Long userId);
 
-    List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size);
+    List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size, String after);
 
     ItemRequestDtoOut getRequestById(Long userId, Long requestId);
+
+    String findRequestETag(Long userId, Long requestId);
 }
\ No newline at end of file
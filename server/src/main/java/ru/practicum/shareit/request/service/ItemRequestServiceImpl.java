@@ -6,6 +6,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -15,7 +18,9 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +32,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final UserService userService;
     private final ItemRequestRepository requestRepository;
+    private final ItemRepository itemRepository;
 
     /**
      * Добавляет новый запрос на предмет от пользователя и возвращает информацию о добавленном запросе.
@@ -53,11 +59,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional(readOnly = true)
     public List<ItemRequestDtoOut> getUserRequests(Long userId) {
-        UserMapper.toUser(userService.findById(userId));
-        List<ItemRequest> itemRequestList = requestRepository.findAllByRequesterId(userId);
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+        userService.checkExists(userId);
+        return toRequestsDtoOut(requestRepository.findAllByRequesterId(userId));
     }
 
     /**
@@ -66,15 +69,22 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @param userId - ID пользователя
      * @param from   - начальный индекс для пагинации
      * @param size   - количество записей на страницу для пагинации
+     * @param after  - курсор последнего полученного запроса или null; если задан, параметр from не используется
      * @return список объектов ItemRequestDtoOut с информацией о запросах на предмет
      */
     @Override
-    public List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size) {
-        UserMapper.toUser(userService.findById(userId));
-        List<ItemRequest> itemRequestList = requestRepository.findAllByRequester_IdNotOrderByCreatedDesc(userId, PageRequest.of(from / size, size));
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toRequestDtoOut)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ItemRequestDtoOut> getAllRequests(Long userId, Integer from, Integer size, String after) {
+        userService.checkExists(userId);
+        List<ItemRequest> itemRequestList;
+        if (after == null) {
+            itemRequestList = requestRepository.findAllByRequester_IdNotOrderByCreatedDescIdDesc(userId, PageRequest.of(from / size, size));
+        } else {
+            PageCursor cursor = PageCursor.from(after);
+            itemRequestList = requestRepository.findAllOtherRequestsBefore(userId, cursor.getTime(), cursor.getId(),
+                    PageRequest.of(0, size));
+        }
+        return toRequestsDtoOut(itemRequestList);
     }
 
     /**
@@ -85,12 +95,50 @@ public class ItemRequestServiceImpl implements ItemRequestService {
      * @return объект ItemRequestDtoOut с информацией о запросе на предмет
      */
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDtoOut getRequestById(Long userId, Long requestId) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Optional<ItemRequest> requestById = requestRepository.findById(requestId);
         if (requestById.isEmpty()) {
             throw new NotFoundException(String.format("Запрос с id: %s " + "не был найден.", requestId));
         }
-        return ItemRequestMapper.toRequestDtoOut(requestById.get());
+        return toRequestsDtoOut(List.of(requestById.get())).get(0);
+    }
+
+    /**
+     * Возвращает ETag запроса на предмет. Версия запроса увеличивается и при изменении вещей,
+     * добавленных в ответ на него, поэтому ETag можно сравнить с If-None-Match, не загружая вещи.
+     *
+     * @param userId    - ID пользователя
+     * @param requestId - ID запроса на предмет
+     * @return ETag запроса на предмет
+     */
+    @Override
+    public String findRequestETag(Long userId, Long requestId) {
+        userService.checkExists(userId);
+        Long version = requestRepository.findVersionById(requestId)
+                .orElseThrow(() -> new NotFoundException(String.format("Запрос с id: %s " + "не был найден.", requestId)));
+        return "request-" + requestId + "-" + version;
+    }
+
+    /**
+     * Преобразует запросы на предмет в объекты ItemRequestDtoOut, загружая вещи всех запросов одним запросом.
+     *
+     * @param requests - список запросов на предмет
+     * @return список объектов ItemRequestDtoOut в порядке исходного списка
+     */
+    private List<ItemRequestDtoOut> toRequestsDtoOut(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdInOrderById(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toRequestDtoOut(request,
+                        items.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
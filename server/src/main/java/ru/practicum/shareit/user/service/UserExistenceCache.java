@@ -0,0 +1,83 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.time.Duration;
+
+/**
+ * Класс UserExistenceCache, представляющий кэш идентификаторов существующих пользователей.
+ * Позволяет проверять пользователя из заголовка запроса без обращения к базе данных.
+ * Хранятся только существующие пользователи и не дольше shareit.user.existence-cache.ttl,
+ * поэтому пользователь, удаленный на другом экземпляре сервера, перестает считаться существующим
+ * не позднее этого срока. Количество идентификаторов ограничено, при переполнении вытесняются
+ * редко используемые.
+ */
+@Component
+public class UserExistenceCache {
+
+    private final Cache<Long, Boolean> userIds;
+    private final Object lock = new Object();
+    private volatile long removals;
+
+    public UserExistenceCache(@Value("${shareit.user.existence-cache.capacity:100000}") int capacity,
+                              @Value("${shareit.user.existence-cache.ttl:30s}") Duration ttl) {
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Проверяет, что пользователь есть в кэше.
+     *
+     * @param userId - ID пользователя
+     * @return true, если пользователь известен как существующий
+     */
+    public boolean contains(Long userId) {
+        return userIds.getIfPresent(userId) != null;
+    }
+
+    /**
+     * Возвращает отметку, которую нужно передать в add, если существование пользователя
+     * проверяется в базе данных после промаха кэша.
+     *
+     * @return текущее количество удалений
+     */
+    public long stamp() {
+        return removals;
+    }
+
+    /**
+     * Добавляет пользователя в кэш, если с момента получения отметки не удалялся ни один пользователь.
+     *
+     * @param userId - ID пользователя
+     * @param stamp  - отметка, полученная методом stamp до проверки в базе данных
+     */
+    public void add(Long userId, long stamp) {
+        synchronized (lock) {
+            if (stamp == removals) {
+                userIds.put(userId, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Удаляет пользователя из кэша сразу и повторно после фиксации текущей транзакции.
+     *
+     * @param userId - ID пользователя
+     */
+    public void remove(Long userId) {
+        Runnable action = () -> {
+            synchronized (lock) {
+                removals++;
+                userIds.invalidate(userId);
+            }
+        };
+        action.run();
+        AfterCommit.run(action);
+    }
+}
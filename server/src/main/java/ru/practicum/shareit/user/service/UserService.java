@@ -15,6 +15,8 @@ public interface UserService {
 
     UserDto findById(Long id);
 
+    void checkExists(Long id);
+
     void delete(Long id);
 
     List<UserDto> findAll();
@@ -2,8 +2,13 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
@@ -21,6 +26,10 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemViewCache itemViewCache;
+    private final UserExistenceCache userExistenceCache;
+    private final OutboxWriter outboxWriter;
 
     /**
      * Метод add(UserDto userDto) добавляет нового пользователя в базу данных.
@@ -33,7 +42,9 @@ public class UserServiceImpl implements UserService {
     public UserDto add(UserDto userDto) {
         User user = UserMapper.toUser(userDto);
         userRepository.save(user);
-        return UserMapper.toUserDto(user);
+        UserDto result = UserMapper.toUserDto(user);
+        outboxWriter.record(OutboxEventType.USER_CREATED, result.getId(), result);
+        return result;
     }
 
     /**
@@ -51,12 +62,16 @@ public class UserServiceImpl implements UserService {
         String name = userDto.getName();
         if (name != null && !name.isBlank()) {
             user.setName(name);
+            itemRepository.incrementVersionOfCommentedItems(id);
+            itemViewCache.evictUser(id);
         }
         String email = userDto.getEmail();
         if (email != null && !email.isBlank()) {
             user.setEmail(email);
         }
-        return UserMapper.toUserDto(user);
+        UserDto result = UserMapper.toUserDto(user);
+        outboxWriter.record(OutboxEventType.USER_UPDATED, id, result);
+        return result;
     }
 
     /**
@@ -73,6 +88,26 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toUserDto(user);
     }
 
+    /**
+     * Метод checkExists(Long id) проверяет, что пользователь существует.
+     * Пользователи, уже найденные ранее, проверяются по кэшу без обращения к базе данных.
+     *
+     * @param id Идентификатор пользователя.
+     * @throws NotFoundException Если пользователь с указанным идентификатором не найден.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void checkExists(Long id) {
+        if (userExistenceCache.contains(id)) {
+            return;
+        }
+        long stamp = userExistenceCache.stamp();
+        if (!userRepository.existsById(id)) {
+            throw new NotFoundException("Пользователя с " + id + " не существует");
+        }
+        userExistenceCache.add(id, stamp);
+    }
+
     /**
      * Метод delete(Long id) удаляет пользователя по его идентификатору.
      *
@@ -82,6 +117,9 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        userExistenceCache.remove(id);
+        itemViewCache.evictUser(id);
+        outboxWriter.record(OutboxEventType.USER_DELETED, id, UserDto.builder().id(id).build());
     }
 
     /**
@@ -1,4 +1,4 @@
-DROP TABLE IF EXISTS requests, comments,bookings,items, users;
+DROP TABLE IF EXISTS outbox_aggregates, outbox, requests, comments,bookings,items, users;
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -12,6 +12,7 @@ CREATE TABLE IF NOT EXISTS requests (
     description VARCHAR (512) NOT NULL,
     requestor_id BIGINT,
     created TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (requestor_id) REFERENCES users (id)
     );
 
@@ -22,6 +23,7 @@ CREATE TABLE IF NOT EXISTS items (
     available BOOLEAN,
     owner_id BIGINT NOT NULL,
     request_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (request_id) REFERENCES requests (id),
     CONSTRAINT fk_items_owner_id FOREIGN KEY (owner_id) REFERENCES users (id)
     );
@@ -33,10 +35,27 @@ CREATE TABLE IF NOT EXISTS bookings(
     item_id BIGINT NOT NULL,
     booker_id BIGINT NOT NULL,
     status VARCHAR (64),
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_bookings_item_id FOREIGN KEY (item_id) REFERENCES items(id),
     CONSTRAINT fk_bookings_booker_id FOREIGN KEY (booker_id) REFERENCES users (id)
     );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_status_id ON bookings (status, id);
+
 CREATE TABLE IF NOT EXISTS comments(
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text VARCHAR (2048) NOT NULL,
@@ -45,4 +64,23 @@ CREATE TABLE IF NOT EXISTS comments(
     created TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users (id)
-    );
\ No newline at end of file
+    );
+
+CREATE TABLE IF NOT EXISTS outbox(
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR (32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    aggregate_version BIGINT NOT NULL,
+    event_type VARCHAR (64) NOT NULL,
+    payload TEXT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    parked BOOLEAN NOT NULL DEFAULT FALSE
+    );
+
+CREATE TABLE IF NOT EXISTS outbox_aggregates(
+    aggregate_type VARCHAR (32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_outbox_aggregates PRIMARY KEY (aggregate_type, aggregate_id)
+    );
@@ -0,0 +1,141 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Проверяет, что количество SQL-запросов на списочных эндпоинтах не зависит от количества строк.
+ */
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "shareit.outbox.relay.enabled=false",
+        "shareit.booking.expiry.enabled=false"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class StatementCountIT {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        ownerId = userService.add(UserDto.builder().name("owner").email("owner@email.com").build()).getId();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            itemIds.add(itemService.add(ownerId, ItemDto.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .build()).getId());
+        }
+        itemId = itemIds.get(0);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            User booker = userRepository.getReferenceById(userService.add(UserDto.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@email.com")
+                    .build()).getId());
+            for (Long id : itemIds) {
+                Item item = itemRepository.getReferenceById(id);
+                bookingRepository.save(new Booking(item, now.minusDays(2L + i), now.minusDays(1L + i), booker,
+                        BookingStatus.APPROVED));
+                bookingRepository.save(new Booking(item, now.plusDays(1L + i), now.plusDays(2L + i), booker,
+                        BookingStatus.APPROVED));
+                commentRepository.save(new Comment("comment", item, booker));
+            }
+            bookerId = booker.getId();
+        }
+        userService.checkExists(ownerId);
+        userService.checkExists(bookerId);
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllBookingsByBookerShouldExecuteOneStatement() {
+        assertEquals(ROWS * 2, bookingService.findAll(bookerId, "ALL", 0, 10, null).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllBookingsByOwnerShouldExecuteOneStatement() {
+        assertEquals(10, bookingService.findAllOwner(ownerId, "ALL", 0, 10, null).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findAllItemsByOwnerShouldExecuteFourStatements() {
+        assertEquals(ROWS, itemService.findAll(ownerId, 0, 10).size());
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findItemByIdShouldExecuteTwoStatements() {
+        assertEquals(ROWS, itemService.findItemById(bookerId, itemId).getComments().size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,9 +6,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -23,6 +26,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -83,6 +87,31 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(bookingDtoOut), result);
     }
 
+    @Test
+    @SneakyThrows
+    void subscribeShouldStartEventStream() {
+        when(bookingService.subscribe(user.getId())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/bookings/events")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateWhenBookingChangedConcurrentlyShouldReturnStatusConflict() {
+        Long bookingId = 1L;
+
+        when(bookingService.update(user.getId(), bookingId, true))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId));
+
+        mockMvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .header(USER_HEADER, user.getId())
+                        .param("approved", "true"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @SneakyThrows
     void updateWhenBookingIsValid() {
@@ -108,6 +137,7 @@ class BookingControllerTest {
     void getByIdWhenBookingIsValid() {
         Long bookingId = 1L;
 
+        when(bookingService.findBookingETag(user.getId(), bookingId)).thenReturn("booking-1-0-0-hash");
         when(bookingService.findBookingByUserId(user.getId(), bookingId)).thenReturn(bookingDtoOut);
 
         String result = mockMvc.perform(get("/bookings/{bookingId}", bookingId)
@@ -126,7 +156,7 @@ class BookingControllerTest {
         Integer size = 10;
         String state = "ALL";
 
-        when(bookingService.findAll(user.getId(), BookingState.ALL.toString(), 0, 10))
+        when(bookingService.findAll(user.getId(), BookingState.ALL.toString(), 0, 10, null))
                 .thenReturn(List.of(bookingDtoOut));
 
         String result = mockMvc.perform(get("/bookings")
@@ -150,7 +180,7 @@ class BookingControllerTest {
         Integer size = 10;
         String state = "ALL";
 
-        when(bookingService.findAllOwner(user.getId(), BookingState.ALL.toString(), 0, 10))
+        when(bookingService.findAllOwner(user.getId(), BookingState.ALL.toString(), 0, 10, null))
                 .thenReturn(List.of(bookingDtoOut));
 
         String result = mockMvc.perform(get("/bookings/owner")
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStatusChange;
+import ru.practicum.shareit.booking.service.BookingEventBus;
+import ru.practicum.shareit.booking.service.BookingExpiryJob;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryJobTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingEventBus bookingEventBus;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingExpiryJob bookingExpiryJob;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("item name")
+            .description("description")
+            .available(true)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        bookingExpiryJob = new BookingExpiryJob(bookingRepository, bookingEventBus, outboxWriter,
+                transactionManager, new SimpleMeterRegistry(), false, Duration.ofMinutes(1), 2);
+    }
+
+    @Test
+    void expireStartedBeforeShouldProcessBatchesByIdRange() {
+        Booking first = booking(1L);
+        Booking second = booking(2L);
+        Booking third = booking(5L);
+        when(bookingRepository.findWaitingStartedBefore(now, 0L, 2))
+                .thenReturn(List.of(first, second));
+        when(bookingRepository.findWaitingStartedBefore(now, 2L, 2))
+                .thenReturn(List.of(third));
+        when(bookingRepository.updateStatusByIdIn(List.of(1L, 2L), BookingStatus.WAITING, BookingStatus.EXPIRED))
+                .thenReturn(2);
+        when(bookingRepository.updateStatusByIdIn(List.of(5L), BookingStatus.WAITING, BookingStatus.EXPIRED))
+                .thenReturn(1);
+        when(bookingRepository.findAllStatusChangesByIdIn(any())).thenReturn(Collections.emptyList());
+
+        assertEquals(3, bookingExpiryJob.expireStartedBefore(now));
+
+        verify(bookingRepository).updateStatusByIdIn(List.of(1L, 2L), BookingStatus.WAITING, BookingStatus.EXPIRED);
+        verify(bookingRepository).updateStatusByIdIn(List.of(5L), BookingStatus.WAITING, BookingStatus.EXPIRED);
+    }
+
+    @Test
+    void expireStartedBeforeShouldPublishStatusChanges() {
+        Booking booking = booking(1L);
+        BookingStatusChange change = new BookingStatusChange() {
+            @Override
+            public Long getBookingId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getItemId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return 2L;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return 3L;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return BookingStatus.EXPIRED;
+            }
+        };
+        when(bookingRepository.findWaitingStartedBefore(now, 0L, 2))
+                .thenReturn(List.of(booking));
+        when(bookingRepository.updateStatusByIdIn(List.of(1L), BookingStatus.WAITING, BookingStatus.EXPIRED))
+                .thenReturn(1);
+        when(bookingRepository.findAllStatusChangesByIdIn(List.of(1L))).thenReturn(List.of(change));
+
+        assertEquals(1, bookingExpiryJob.expireStartedBefore(now));
+
+        ArgumentCaptor<BookingEventDto> captor = ArgumentCaptor.forClass(BookingEventDto.class);
+        verify(bookingEventBus).publish(captor.capture());
+        assertEquals(BookingStatus.EXPIRED, captor.getValue().getStatus());
+        assertEquals(3L, captor.getValue().getOwnerId());
+        verify(outboxWriter).record(eq(OutboxEventType.BOOKING_EXPIRED), eq(1L), eq(captor.getValue()));
+    }
+
+    @Test
+    void expireStartedBeforeWhenNothingExpiredShouldNotUpdate() {
+        when(bookingRepository.findWaitingStartedBefore(now, 0L, 2))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(0, bookingExpiryJob.expireStartedBefore(now));
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any(), any());
+    }
+
+    private Booking booking(Long id) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(now.minusHours(1L))
+                .end(now.plusHours(1L))
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
@@ -9,16 +9,24 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRole;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 @DataJpaTest
@@ -52,24 +60,24 @@ class BookingRepositoryTest {
             .item(item)
             .booker(user)
             .status(BookingStatus.APPROVED)
-            .start(LocalDateTime.now().minusHours(1L))
-            .end(LocalDateTime.now().plusDays(1L))
+            .start(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusHours(1L))
+            .end(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusDays(1L))
             .build();
 
     private final Booking pastBooking = Booking.builder()
             .item(item)
             .booker(user)
             .status(BookingStatus.APPROVED)
-            .start(LocalDateTime.now().minusDays(2L))
-            .end(LocalDateTime.now().minusDays(1L))
+            .start(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(2L))
+            .end(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(1L))
             .build();
 
     private final Booking futureBooking = Booking.builder()
             .item(item)
             .booker(user)
             .status(BookingStatus.APPROVED)
-            .start(LocalDateTime.now().plusDays(1L))
-            .end(LocalDateTime.now().plusDays(2L))
+            .start(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusDays(1L))
+            .end(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).plusDays(2L))
             .build();
 
     @BeforeEach
@@ -90,7 +98,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllBookingsByBookerId(1L, PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.ALL,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 3);
         assertEquals(bookings.get(0).getBooker().getId(), 1L);
@@ -98,8 +107,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllCurrentBookingsByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByBookerId(1L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.CURRENT,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getBooker().getId(), 1L);
@@ -107,8 +116,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllPastBookingsByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByBookerId(1L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.PAST,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), 2L);
@@ -116,8 +125,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllFutureBookingsByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByBookerId(1L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.FUTURE,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getId(), 3L);
@@ -134,8 +143,8 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(waitingBooking);
-        List<Booking> bookings = bookingRepository.findAllWaitingBookingsByBookerId(1L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.WAITING,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING);
@@ -152,8 +161,8 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(rejectedBooking);
-        List<Booking> bookings = bookingRepository.findAllRejectedBookingsByBookerId(1L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.BOOKER, 1L, BookingState.REJECTED,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED);
@@ -161,15 +170,16 @@ class BookingRepositoryTest {
 
     @Test
     void findAllByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllBookingsByOwnerId(2L, PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.ALL,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 3);
     }
 
     @Test
     void findAllCurrentBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByOwnerId(2L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.CURRENT,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
@@ -177,8 +187,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllPastBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByOwnerId(2L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.PAST,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
@@ -186,8 +196,8 @@ class BookingRepositoryTest {
 
     @Test
     void findAllFutureBookingsByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByOwnerId(2L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.FUTURE,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
@@ -204,8 +214,8 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(waitingBooking);
-        List<Booking> bookings = bookingRepository.findAllWaitingBookingsByOwnerId(2L, LocalDateTime.now(),
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.WAITING,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING);
@@ -222,13 +232,47 @@ class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(rejectedBooking);
-        List<Booking> bookings = bookingRepository.findAllRejectedBookingsByOwnerId(2L,
-                PageRequest.of(0, 10));
+        List<Booking> bookings = bookingRepository.findAllByState(BookingRole.OWNER, 2L, BookingState.REJECTED,
+                LocalDateTime.now(), PageRequest.of(0, 10));
 
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED);
     }
 
+    @Test
+    void findAllByStateAfterForBooker() {
+        PageCursor cursor = new PageCursor(futureBooking.getStart(), futureBooking.getId());
+
+        List<Booking> bookings = bookingRepository.findAllByStateAfter(BookingRole.BOOKER, 1L, BookingState.ALL,
+                LocalDateTime.now(), cursor, 10);
+
+        assertEquals(bookings.size(), 2);
+        assertEquals(bookings.get(0).getId(), booking.getId());
+        assertEquals(bookings.get(1).getId(), pastBooking.getId());
+    }
+
+    @Test
+    void findAllByStateAfterForBookerWhenPageIsLimited() {
+        PageCursor cursor = new PageCursor(futureBooking.getStart(), futureBooking.getId());
+
+        List<Booking> bookings = bookingRepository.findAllByStateAfter(BookingRole.BOOKER, 1L, BookingState.ALL,
+                LocalDateTime.now(), cursor, 1);
+
+        assertEquals(bookings.size(), 1);
+        assertEquals(bookings.get(0).getId(), booking.getId());
+    }
+
+    @Test
+    void findAllByStateAfterForOwner() {
+        PageCursor cursor = new PageCursor(booking.getStart(), booking.getId());
+
+        List<Booking> bookings = bookingRepository.findAllByStateAfter(BookingRole.OWNER, 2L, BookingState.PAST,
+                LocalDateTime.now(), cursor, 10);
+
+        assertEquals(bookings.size(), 1);
+        assertEquals(bookings.get(0).getId(), pastBooking.getId());
+    }
+
     @Test
     void findAllByUserBookings() {
         List<Booking> bookings = bookingRepository.findAllByUserBookings(1L, 1L, LocalDateTime.now());
@@ -237,6 +281,69 @@ class BookingRepositoryTest {
         assertEquals(bookings.get(0).getStatus(), BookingStatus.APPROVED);
     }
 
+    @Test
+    void findWaitingStartedBeforeAndExpire() {
+        Booking staleBooking = Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().minusHours(1L))
+                .end(LocalDateTime.now().plusHours(1L))
+                .build();
+        Booking waitingBooking = Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(1L))
+                .end(LocalDateTime.now().plusDays(2L))
+                .build();
+        bookingRepository.save(staleBooking);
+        bookingRepository.save(waitingBooking);
+
+        List<Booking> bookings = bookingRepository.findWaitingStartedBefore(LocalDateTime.now(), 0L, 10);
+
+        assertEquals(List.of(staleBooking.getId()), bookings.stream().map(Booking::getId).collect(Collectors.toList()));
+        assertEquals(List.of(), bookingRepository.findWaitingStartedBefore(LocalDateTime.now(), staleBooking.getId(),
+                10));
+
+        assertEquals(1, bookingRepository.updateStatusByIdIn(List.of(staleBooking.getId(), booking.getId()),
+                BookingStatus.WAITING, BookingStatus.EXPIRED));
+        assertEquals(BookingStatus.EXPIRED, bookingRepository.findById(staleBooking.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(waitingBooking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void existsOverlapping() {
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertTrue(bookingRepository.existsOverlapping(item.getId(), 0L, statuses,
+                futureBooking.getStart().plusHours(1L), futureBooking.getEnd().plusDays(1L)));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), futureBooking.getId(), statuses,
+                futureBooking.getStart().plusHours(1L), futureBooking.getEnd().plusHours(1L)));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), 0L, statuses,
+                futureBooking.getEnd(), futureBooking.getEnd().plusDays(1L)));
+    }
+
+    @Test
+    void findLastAndNextApprovedBookings() {
+        Booking rejectedBooking = Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.REJECTED)
+                .start(LocalDateTime.now().plusHours(1L))
+                .end(LocalDateTime.now().plusHours(2L))
+                .build();
+        bookingRepository.save(rejectedBooking);
+
+        List<Booking> bookings = bookingRepository.findLastAndNextApprovedBookings(List.of(item.getId()),
+                LocalDateTime.now());
+
+        assertEquals(bookings.size(), 2);
+        assertEquals(bookings.stream().map(Booking::getId).collect(Collectors.toSet()),
+                Set.of(booking.getId(), futureBooking.getId()));
+    }
+
     @Test
     void getLastBooking() {
         Optional<Booking> bookingOptional = bookingRepository.getLastBooking(1L, LocalDateTime.now());
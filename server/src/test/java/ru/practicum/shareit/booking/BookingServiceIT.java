@@ -12,6 +12,7 @@ import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.UserDto;
@@ -64,6 +65,12 @@ public class BookingServiceIT {
             .end(LocalDateTime.now().plusSeconds(11L))
             .build();
 
+    private final BookingDto bookingDto2 = BookingDto.builder()
+            .itemId(2L)
+            .start(LocalDateTime.now().plusSeconds(11L))
+            .end(LocalDateTime.now().plusSeconds(12L))
+            .build();
+
     @Test
     void addBooking() {
         UserDto addedUser1 = userService.add(userDto1);
@@ -72,7 +79,7 @@ public class BookingServiceIT {
         itemService.add(addedUser2.getId(), itemDto2);
 
         BookingDtoOut bookingDtoOut1 = bookingService.add(addedUser1.getId(), bookingDto1);
-        BookingDtoOut bookingDtoOut2 = bookingService.add(addedUser1.getId(), bookingDto1);
+        BookingDtoOut bookingDtoOut2 = bookingService.add(addedUser1.getId(), bookingDto2);
 
         assertEquals(1L, bookingDtoOut1.getId());
         assertEquals(2L, bookingDtoOut2.getId());
@@ -88,11 +95,37 @@ public class BookingServiceIT {
         assertEquals(BookingStatus.APPROVED, updatedBookingDto2.getStatus());
 
         List<BookingDtoOut> bookingsDtoOut = bookingService.findAllOwner(addedUser2.getId(),
-                BookingState.ALL.toString(), 0, 10);
+                BookingState.ALL.toString(), 0, 10, null);
 
         assertEquals(2, bookingsDtoOut.size());
     }
 
+    @Test
+    void addBookingWhenPeriodOverlapsShouldThrowValidationException() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemDto1);
+        itemService.add(addedUser2.getId(), itemDto2);
+        bookingService.add(addedUser1.getId(), bookingDto1);
+
+        Assertions.assertThrows(ValidationException.class,
+                () -> bookingService.add(addedUser1.getId(), bookingDto1));
+    }
+
+    @Test
+    void addBookingWhenOverlappingBookingRejected() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemDto1);
+        itemService.add(addedUser2.getId(), itemDto2);
+        BookingDtoOut rejectedBooking = bookingService.add(addedUser1.getId(), bookingDto1);
+        bookingService.update(addedUser2.getId(), rejectedBooking.getId(), false);
+
+        BookingDtoOut bookingDtoOut = bookingService.add(addedUser1.getId(), bookingDto1);
+
+        assertEquals(BookingStatus.WAITING, bookingDtoOut.getStatus());
+    }
+
     @Test
     void update_whenBookingIdAndUserIdIsNotValid_thenThrowObjectNotFoundException() {
         Long userId = 3L;
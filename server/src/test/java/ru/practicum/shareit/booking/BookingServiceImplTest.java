@@ -9,13 +9,21 @@ import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOut;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingRole;
+import ru.practicum.shareit.booking.repository.BookingVersion;
+import ru.practicum.shareit.booking.service.BookingEventBus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemBookingTimeline;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxWriter;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -25,9 +33,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +55,15 @@ class BookingServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemBookingTimeline itemBookingTimeline;
+
+    @Mock
+    private BookingEventBus bookingEventBus;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -105,7 +127,7 @@ class BookingServiceImplTest {
     void create() {
         BookingDtoOut expectedBookingDtoOut = BookingMapper.toBookingOut(BookingMapper.toBooking(user, item, bookingDto));
         when(userService.findById(userDto.getId())).thenReturn(userDto);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.save(any(Booking.class))).thenReturn(BookingMapper.toBooking(user, item, bookingDto));
 
         BookingDtoOut actualBookingDtoOut = bookingService.add(userDto.getId(), bookingDto);
@@ -113,10 +135,24 @@ class BookingServiceImplTest {
         assertEquals(expectedBookingDtoOut, actualBookingDtoOut);
     }
 
+    @Test
+    void createWhenPeriodOverlapsInDatabaseShouldThrowValidationException() {
+        when(userService.findById(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(BookingMapper.toBooking(user, item, bookingDto));
+        when(bookingRepository.existsOverlapping(eq(item.getId()), any(), any(), eq(bookingDto.getStart()),
+                eq(bookingDto.getEnd()))).thenReturn(true);
+
+        ValidationException bookingValidationException = assertThrows(ValidationException.class,
+                () -> bookingService.add(userDto.getId(), bookingDto));
+
+        assertEquals(bookingValidationException.getMessage(), "Вещь уже забронирована на указанный период.");
+    }
+
     @Test
     void createWhenEndIsBeforeStartShouldThrowValidationException() {
         when(userService.findById(userDto.getId())).thenReturn(userDto);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         ValidationException bookingValidationException = assertThrows(ValidationException.class,
                 () -> bookingService.add(userDto.getId(), bookingDtoEndBeforeStart));
@@ -128,7 +164,7 @@ class BookingServiceImplTest {
     void createWhenItemIsNotAvailableShouldThrowValidationException() {
         item.setAvailable(false);
         when(userService.findById(userDto.getId())).thenReturn(userDto);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         ValidationException bookingValidationException = assertThrows(ValidationException.class,
                 () -> bookingService.add(userDto.getId(), bookingDto));
@@ -140,7 +176,7 @@ class BookingServiceImplTest {
     void createWhenItemOwnerEqualsBookerShouldThrowValidationException() {
         item.setOwner(user);
         when(userService.findById(userDto.getId())).thenReturn(userDto);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         NotFoundException bookingNotFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.add(userDto.getId(), bookingDto));
@@ -156,6 +192,10 @@ class BookingServiceImplTest {
         BookingDtoOut actualBookingDtoOut = bookingService.update(owner.getId(), bookingWaiting.getId(), true);
 
         assertEquals(BookingStatus.APPROVED, actualBookingDtoOut.getStatus());
+        verify(itemBookingTimeline).approve(bookingWaiting);
+        verify(bookingEventBus).publish(bookingWaiting);
+        verify(outboxWriter).record(OutboxEventType.BOOKING_STATUS_CHANGED, actualBookingDtoOut.getId(),
+                actualBookingDtoOut);
     }
 
     @Test
@@ -166,6 +206,7 @@ class BookingServiceImplTest {
         BookingDtoOut actualBookingDtoOut = bookingService.update(owner.getId(), bookingWaiting.getId(), false);
 
         assertEquals(BookingStatus.REJECTED, actualBookingDtoOut.getStatus());
+        verify(itemBookingTimeline, never()).approve(any(Booking.class));
     }
 
     @Test
@@ -215,16 +256,16 @@ class BookingServiceImplTest {
         NotFoundException bookingNotFoundException = assertThrows(NotFoundException.class,
                 () -> bookingService.findBookingByUserId(3L, booking.getId()));
 
-        assertEquals(bookingNotFoundException.getMessage(), "Пользователь не владелeц и не автор бронирования ");
+        assertEquals(bookingNotFoundException.getMessage(), "Пользователь не владелец и не автор бронирования ");
     }
 
     @Test
     void getAllByBookerWhenBookingStateAll() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllBookingsByBookerId(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "ALL", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "ALL", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -232,11 +273,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByBooker_whenBookingStateCURRENT() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllCurrentBookingsByBookerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "CURRENT", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "CURRENT", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -244,11 +285,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStatePAST() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllPastBookingsByBookerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.PAST),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "PAST", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "PAST", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -256,11 +297,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateFUTURE() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllFutureBookingsByBookerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.FUTURE),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "FUTURE", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "FUTURE", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -268,28 +309,48 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateWAITING() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllWaitingBookingsByBookerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.WAITING),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "WAITING", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "WAITING", 0, 10, null);
+
+        assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
+    }
+
+    @Test
+    void getAllByBookerWhenCursorIsSet() {
+        List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 10, 1, 12, 0), 15L);
+        when(bookingRepository.findAllByStateAfter(eq(BookingRole.BOOKER), eq(user.getId()), eq(BookingState.ALL),
+                any(LocalDateTime.class), eq(cursor), eq(10))).thenReturn(List.of(booking));
+
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "ALL", 0, 10,
+                "2023-10-01T12:00,15");
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
 
+    @Test
+    void getAllByBookerWhenCursorIsNotValidShouldThrowValidationException() {
+
+        assertThrows(ValidationException.class,
+                () -> bookingService.findAll(user.getId(), "ALL", 0, 10, "2023-10-01T12:00"));
+    }
+
     @Test
     void getAllByBookerWhenBookingStateIsNotValidShouldThrowIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class,
-                () -> bookingService.findAll(user.getId(), "ERROR", 0, 10));
+                () -> bookingService.findAll(user.getId(), "ERROR", 0, 10, null));
     }
 
     @Test
     void getAllByOwnerWhenBookingStateAll() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllBookingsByOwnerId(anyLong(), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.ALL),
+                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "ALL", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "ALL", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -297,11 +358,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateCURRENT() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllCurrentBookingsByOwnerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "CURRENT", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "CURRENT", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -309,11 +370,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStatePAST() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllPastBookingsByOwnerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.PAST),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "PAST", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "PAST", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -321,11 +382,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateFUTURE() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllFutureBookingsByOwnerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.FUTURE),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "FUTURE", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "FUTURE", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -333,11 +394,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateWAITING() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllWaitingBookingsByOwnerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.WAITING),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "WAITING", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "WAITING", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -345,11 +406,11 @@ class BookingServiceImplTest {
     @Test
     void getAllByOwnerWhenBookingStateREJECTED() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllRejectedBookingsByOwnerId(anyLong(), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.OWNER), anyLong(), eq(BookingState.REJECTED),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "REJECTED", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "REJECTED", 0, 10, null);
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
@@ -357,20 +418,47 @@ class BookingServiceImplTest {
     @Test
     void getAllByBookerWhenBookingStateREJECTED() {
         List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllRejectedBookingsByBookerId(anyLong(), any(LocalDateTime.class), any(Pageable.class)))
+        when(bookingRepository.findAllByState(eq(BookingRole.BOOKER), anyLong(), eq(BookingState.REJECTED),
+                any(LocalDateTime.class), any(Pageable.class)))
                 .thenReturn(List.of(booking));
 
-        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "REJECTED", 0, 10);
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAll(user.getId(), "REJECTED", 0, 10, null);
+
+        assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
+    }
+
+    @Test
+    void getAllByOwnerWhenCursorIsSet() {
+        List<BookingDtoOut> expectedBookingsDtoOut = List.of(BookingMapper.toBookingOut(booking));
+        PageCursor cursor = new PageCursor(LocalDateTime.of(2023, 10, 1, 12, 0), 15L);
+        when(bookingRepository.findAllByStateAfter(eq(BookingRole.OWNER), eq(user.getId()), eq(BookingState.PAST),
+                any(LocalDateTime.class), eq(cursor), eq(10))).thenReturn(List.of(booking));
+
+        List<BookingDtoOut> actualBookingsDtoOut = bookingService.findAllOwner(user.getId(), "PAST", 0, 10,
+                "2023-10-01T12:00,15");
 
         assertEquals(expectedBookingsDtoOut, actualBookingsDtoOut);
     }
 
     @Test
     void getAllByOwnerWhenBookingStateIsNotValidThenThrowIllegalArgumentException() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
 
         assertThrows(IllegalArgumentException.class,
-                () -> bookingService.findAllOwner(user.getId(), "ERROR", 0, 10));
+                () -> bookingService.findAllOwner(user.getId(), "ERROR", 0, 10, null));
+    }
+
+    @Test
+    void findBookingETagShouldChangeWhenBookerEmailChanges() {
+        BookingVersion version = mock(BookingVersion.class);
+        when(version.getVersion()).thenReturn(0L);
+        when(version.getItemVersion()).thenReturn(0L);
+        when(version.getBookerId()).thenReturn(user.getId());
+        when(version.getBookerName()).thenReturn(user.getName());
+        when(version.getBookerEmail()).thenReturn(user.getEmail(), "other@email.com");
+        when(bookingRepository.findVersionById(1L)).thenReturn(Optional.of(version));
+
+        String eTag = bookingService.findBookingETag(user.getId(), 1L);
+
+        assertNotEquals(eTag, bookingService.findBookingETag(user.getId(), 1L));
     }
-}
\ No newline at end of file
+}
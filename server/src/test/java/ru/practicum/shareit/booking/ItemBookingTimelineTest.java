@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingTimeline;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingTimelineTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private ItemBookingTimeline itemBookingTimeline;
+
+    private final LocalDateTime now = LocalDateTime.of(2023, 10, 1, 12, 0);
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("item name")
+            .description("description")
+            .available(true)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        itemBookingTimeline = new ItemBookingTimeline(bookingRepository, 1, Duration.ofMinutes(1));
+    }
+
+    private Booking booking(Long id, Item item, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(start)
+                .end(start.plusDays(1L))
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    @Test
+    void findLastAndNextBookingIdsShouldReuseWindowUntilNextBookingStarts() {
+        when(bookingRepository.findLastAndNextApprovedBookings(List.of(1L), now))
+                .thenReturn(List.of(booking(2L, item, now.minusDays(1L)), booking(3L, item, now.plusDays(1L))));
+        when(bookingRepository.findLastAndNextApprovedBookings(List.of(1L), now.plusDays(2L)))
+                .thenReturn(List.of(booking(3L, item, now.plusDays(1L)), booking(4L, item, now.plusDays(10L))));
+
+        assertEquals(List.of(2L, 3L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now));
+        assertEquals(List.of(2L, 3L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now.plusHours(1L)));
+        assertEquals(List.of(3L, 4L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now.plusDays(2L)));
+        verify(bookingRepository, times(2)).findLastAndNextApprovedBookings(anyList(), any());
+    }
+
+    @Test
+    void findLastAndNextBookingIdsWhenItemHasNoBookings() {
+        when(bookingRepository.findLastAndNextApprovedBookings(List.of(1L), now)).thenReturn(List.of());
+
+        assertEquals(List.of(), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now));
+        assertEquals(List.of(), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now.plusDays(1L)));
+        verify(bookingRepository, times(1)).findLastAndNextApprovedBookings(anyList(), any());
+    }
+
+    @Test
+    void approveShouldReloadItem() {
+        when(bookingRepository.findLastAndNextApprovedBookings(List.of(1L), now))
+                .thenReturn(List.of(booking(1L, item, now.minusDays(1L)), booking(2L, item, now.plusDays(10L))))
+                .thenReturn(List.of(booking(1L, item, now.minusDays(1L)), booking(3L, item, now.plusDays(1L))));
+        itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now);
+
+        itemBookingTimeline.approve(booking(3L, item, now.plusDays(1L)));
+
+        assertEquals(List.of(1L, 3L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now));
+    }
+
+    @Test
+    void findLastAndNextBookingIdsWhenApprovedDuringLoadShouldNotCacheStaleWindow() {
+        when(bookingRepository.findLastAndNextApprovedBookings(List.of(1L), now))
+                .thenAnswer(invocation -> {
+                    itemBookingTimeline.approve(booking(3L, item, now.plusDays(1L)));
+                    return List.of(booking(1L, item, now.minusDays(1L)));
+                })
+                .thenReturn(List.of(booking(1L, item, now.minusDays(1L)), booking(3L, item, now.plusDays(1L))));
+
+        assertEquals(List.of(1L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now));
+        assertEquals(List.of(1L, 3L), itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now));
+        verify(bookingRepository, times(2)).findLastAndNextApprovedBookings(List.of(1L), now);
+    }
+
+    @Test
+    void findLastAndNextBookingIdsWhenExpiredShouldReload() {
+        itemBookingTimeline = new ItemBookingTimeline(bookingRepository, 10, Duration.ZERO);
+        when(bookingRepository.findLastAndNextApprovedBookings(eq(List.of(1L)), any())).thenReturn(List.of());
+
+        itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now);
+        itemBookingTimeline.findLastAndNextBookingIds(List.of(1L), now);
+
+        verify(bookingRepository, times(2)).findLastAndNextApprovedBookings(List.of(1L), now);
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -18,8 +19,11 @@ import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -133,6 +137,23 @@ class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(itemDtoToCreate), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getWhenETagMatchesShouldReturnStatusNotModified() {
+        Long itemId = 0L;
+        Long userId = 0L;
+        String eTag = "\"item-0-1\"";
+
+        when(itemService.findItemETag(userId, itemId)).thenReturn(Optional.of(eTag));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        verify(itemService, never()).findItemById(userId, itemId);
+    }
+
     @Test
     @SneakyThrows
     void getAllShouldReturnStatusOk() {
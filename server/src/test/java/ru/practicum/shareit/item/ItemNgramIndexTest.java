@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.service.ItemNgramIndex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ItemNgramIndexTest {
+
+    private final ItemNgramIndex index = new ItemNgramIndex();
+
+    @Test
+    void searchShouldMatchSubstringOfNameOrDescriptionIgnoringCase() {
+        index.put(3, "Дрель", "Простая дрель");
+        index.put(1, "Отвертка", "Аккумуляторная отвертка");
+        index.put(2, "Дрель ударная", "Мощная");
+
+        assertArrayEquals(new int[]{2, 3}, index.search("дРЕль"));
+        assertArrayEquals(new int[]{1}, index.search("аккум"));
+        assertArrayEquals(new int[0], index.search("пила"));
+    }
+
+    @Test
+    void searchShouldNotMatchAcrossNameAndDescription() {
+        index.put(1, "abc", "def");
+
+        assertArrayEquals(new int[0], index.search("cde"));
+        assertArrayEquals(new int[0], index.search("abcdef"));
+    }
+
+    @Test
+    void searchShouldVerifyCandidatesFoundByTrigrams() {
+        index.put(1, "abcd bcde", "");
+
+        assertArrayEquals(new int[0], index.search("abcde"));
+    }
+
+    @Test
+    void putShouldReplaceOldTextAndRemoveShouldDropItem() {
+        index.put(1, "Дрель", "");
+        index.put(1, "Пила", "");
+
+        assertArrayEquals(new int[0], index.search("дрель"));
+        assertArrayEquals(new int[]{1}, index.search("пила"));
+
+        index.remove(1);
+
+        assertArrayEquals(new int[0], index.search("пила"));
+    }
+
+    @Test
+    void searchWhenTextIsShorterThanGramShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("ab"));
+    }
+}
@@ -10,8 +10,11 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemText;
+import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -57,4 +60,52 @@ class ItemRepositoryTest {
         assertEquals(items.size(), 1);
         assertEquals(items.get(0).getName(), "name");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllAvailableTexts() {
+        itemRepository.save(Item.builder()
+                .name("unavailable")
+                .description("description")
+                .available(false)
+                .owner(user)
+                .build());
+
+        List<ItemText> items = itemRepository.findAllAvailableTexts();
+
+        assertEquals(items.size(), 1);
+        assertEquals(items.get(0).getName(), "name");
+    }
+
+    @Test
+    void findAllByRequestIdInOrderById() {
+        ItemRequest request = testEntityManager.persist(ItemRequest.builder()
+                .description("request description")
+                .requester(user)
+                .created(LocalDateTime.now())
+                .build());
+        ItemRequest otherRequest = testEntityManager.persist(ItemRequest.builder()
+                .description("other request description")
+                .requester(user)
+                .created(LocalDateTime.now())
+                .build());
+        Item requestItem = itemRepository.save(Item.builder()
+                .name("request item")
+                .description("description")
+                .available(true)
+                .owner(user)
+                .request(request)
+                .build());
+        Item otherRequestItem = itemRepository.save(Item.builder()
+                .name("other request item")
+                .description("description")
+                .available(true)
+                .owner(user)
+                .request(otherRequest)
+                .build());
+
+        List<Item> items = itemRepository.findAllByRequestIdInOrderById(List.of(request.getId(), otherRequest.getId()));
+
+        assertEquals(List.of(requestItem.getId(), otherRequestItem.getId()),
+                List.of(items.get(0).getId(), items.get(1).getId()));
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemText;
+import ru.practicum.shareit.item.service.ItemNgramIndex;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemSearchMode;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    private final ItemNgramIndex ngramIndex = new ItemNgramIndex();
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("Дрель")
+            .description("Простая дрель")
+            .available(true)
+            .build();
+
+    private final Item otherItem = Item.builder()
+            .id(2L)
+            .name("Дрель ударная")
+            .description("Мощная")
+            .available(true)
+            .build();
+
+    @Test
+    void searchInLikeModeShouldUseRepositoryQuery() {
+        ItemSearchEngine engine = engine(ItemSearchMode.LIKE);
+        when(itemRepository.search("дрель", PageRequest.of(0, 10))).thenReturn(List.of(item));
+
+        assertEquals(List.of(item), engine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void searchInNgramModeShouldPageIndexedItems() {
+        ItemSearchEngine engine = engine(ItemSearchMode.NGRAM);
+        engine.index(item);
+        engine.index(otherItem);
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(otherItem));
+
+        assertEquals(List.of(otherItem), engine.search("дрель", PageRequest.of(1, 1)));
+        verify(itemRepository, never()).search(anyString(), any());
+    }
+
+    @Test
+    void searchInNgramModeWhenItemBecameUnavailableShouldNotFindIt() {
+        ItemSearchEngine engine = engine(ItemSearchMode.NGRAM);
+        engine.index(item);
+        item.setAvailable(false);
+        engine.index(item);
+        when(itemRepository.findAllById(List.of())).thenReturn(List.of());
+
+        assertEquals(List.of(), engine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void searchInFullTextModeOnH2ShouldFallBackToRepositoryQuery() throws Exception {
+        ItemSearchEngine engine = engine(ItemSearchMode.FULLTEXT);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+        when(itemRepository.search("дрель", PageRequest.of(0, 10))).thenReturn(List.of(item));
+
+        engine.warmUp();
+
+        assertEquals(List.of(item), engine.search("дрель", PageRequest.of(0, 10)));
+        verify(itemRepository, never()).searchFullText(anyString(), any());
+    }
+
+    @Test
+    void searchInFullTextModeOnPostgresWithSchemaShouldUseFullTextQuery() throws Exception {
+        ItemSearchEngine engine = engine(ItemSearchMode.FULLTEXT);
+        mockPostgres(true);
+        when(itemRepository.searchFullText("дрель", PageRequest.of(0, 10))).thenReturn(List.of(item));
+
+        engine.warmUp();
+
+        assertEquals(List.of(item), engine.search("дрель", PageRequest.of(0, 10)));
+        verify(itemRepository, never()).search(anyString(), any());
+    }
+
+    @Test
+    void searchInFullTextModeOnPostgresWithoutIndexShouldFallBackToRepositoryQuery() throws Exception {
+        ItemSearchEngine engine = engine(ItemSearchMode.FULLTEXT);
+        mockPostgres(false);
+        when(itemRepository.search("дрель", PageRequest.of(0, 10))).thenReturn(List.of(item));
+
+        engine.warmUp();
+
+        assertEquals(List.of(item), engine.search("дрель", PageRequest.of(0, 10)));
+        verify(itemRepository, never()).searchFullText(anyString(), any());
+    }
+
+    @Test
+    void refreshShouldReplaceIndexWithItemsFromDatabase() {
+        ItemSearchEngine engine = engine(ItemSearchMode.NGRAM);
+        engine.index(item);
+        when(itemRepository.findAllAvailableTexts()).thenReturn(List.of(text(otherItem)));
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(otherItem));
+
+        assertEquals(1, engine.refresh());
+
+        assertEquals(List.of(otherItem), engine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void refreshShouldKeepChangesCommittedWhileLoading() {
+        ItemSearchEngine engine = engine(ItemSearchMode.NGRAM);
+        when(itemRepository.findAllAvailableTexts()).thenAnswer(invocation -> {
+            engine.index(item);
+            return List.of(text(otherItem));
+        });
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(item, otherItem));
+
+        engine.refresh();
+
+        assertEquals(List.of(item, otherItem), engine.search("дрель", PageRequest.of(0, 10)));
+    }
+
+    private void mockPostgres(boolean indexExists) throws Exception {
+        ResultSet columns = mock(ResultSet.class);
+        ResultSet indexes = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(metaData.getColumns(null, null, "items", "search_vector")).thenReturn(columns);
+        when(columns.next()).thenReturn(true);
+        when(metaData.getIndexInfo(null, null, "items", false, true)).thenReturn(indexes);
+        when(indexes.next()).thenReturn(true, false);
+        when(indexes.getString("INDEX_NAME")).thenReturn(indexExists ? "idx_items_search_vector" : "items_pkey");
+    }
+
+    private ItemSearchEngine engine(ItemSearchMode mode) {
+        return new ItemSearchEngine(itemRepository, ngramIndex, dataSource, mode, Duration.ZERO);
+    }
+
+    private static ItemText text(Item item) {
+        return new ItemText() {
+            @Override
+            public Long getId() {
+                return item.getId();
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return item.getDescription();
+            }
+        };
+    }
+}
@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.ItemBookingTimeline;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDtoOut;
@@ -21,11 +22,14 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
-import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
@@ -47,12 +51,27 @@ class ItemServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemBookingTimeline itemBookingTimeline;
+
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ItemViewCache itemViewCache;
+
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
     @Mock
     private UserService userService;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -164,12 +183,32 @@ class ItemServiceImplTest {
 
         assertEquals(actualItemDto.getName(), "test item name");
         assertEquals(actualItemDto.getDescription(), "test description");
+        verify(itemSearchEngine).index(itemSaveTest);
     }
 
     @Test
-    void getItemById() {
+    void addNewItemWithRequestShouldIncrementRequestVersion() {
+        ItemRequest itemRequest = new ItemRequest(1L, "description", user, LocalDateTime.now(), 0L, null);
+        ItemDto itemDtoWithRequest = ItemDto.builder()
+                .name("test item name")
+                .description("test description")
+                .available(true)
+                .requestId(itemRequest.getId())
+                .build();
+
         when(userService.findById(user.getId())).thenReturn(userDto);
-        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRequestRepository.getReferenceById(itemRequest.getId())).thenReturn(itemRequest);
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ItemDtoOut actualItemDto = itemService.add(userDto.getId(), itemDtoWithRequest);
+
+        assertEquals(itemRequest.getId(), actualItemDto.getRequestId());
+        verify(itemRequestRepository).incrementVersion(itemRequest.getId());
+    }
+
+    @Test
+    void getItemById() {
+        when(itemViewCache.find(item.getId())).thenReturn(Optional.of(ItemViewCache.ItemView.of(item, List.of())));
 
         ItemDtoOut actualItemDto = itemService.findItemById(user.getId(), item.getId());
 
@@ -177,9 +216,23 @@ class ItemServiceImplTest {
     }
 
 
+    @Test
+    void getItemByIdWhenUserIsOwnerShouldReturnLastAndNextBookings() {
+        when(itemViewCache.find(item.getId())).thenReturn(Optional.of(ItemViewCache.ItemView.of(item, List.of())));
+        when(itemBookingTimeline.findLastAndNextBookingIds(eq(List.of(item.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBooking.getId(), nextBooking.getId()));
+        when(bookingRepository.findAllByIdIn(List.of(lastBooking.getId(), nextBooking.getId())))
+                .thenReturn(List.of(nextBooking, lastBooking));
+
+        ItemDtoOut actualItemDto = itemService.findItemById(user.getId(), item.getId());
+
+        assertEquals(lastBooking.getId(), actualItemDto.getLastBooking().getId());
+        assertEquals(nextBooking.getId(), actualItemDto.getNextBooking().getId());
+    }
+
     @Test
     void updateItem() {
-        ItemRequest itemRequest = new ItemRequest(1L, "description", user, LocalDateTime.now(), null);
+        ItemRequest itemRequest = new ItemRequest(1L, "description", user, LocalDateTime.now(), 0L, null);
         Item updatedItem = Item.builder()
                 .id(1L)
                 .name("updated name")
@@ -189,13 +242,14 @@ class ItemServiceImplTest {
                 .request(itemRequest)
                 .build();
 
-        when(userService.findById(user.getId())).thenReturn(UserMapper.toUserDto(user));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(updatedItem));
 
         ItemDtoOut savedItem = itemService.update(user.getId(), itemDto.getId(), ItemMapper.toItemDto(updatedItem));
 
         assertEquals("updated name", savedItem.getName());
         assertEquals("updated description", savedItem.getDescription());
+        verify(itemViewCache).evict(updatedItem.getId());
+        verify(itemRequestRepository).incrementVersion(1L);
     }
 
     @Test
@@ -209,7 +263,6 @@ class ItemServiceImplTest {
                 .build();
 
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(updatedItem));
-        when(userService.findById(user.getId())).thenReturn(userDto);
 
         NotFoundException itemNotFoundException = assertThrows(NotFoundException.class,
                 () -> itemService.update(user.getId(), itemDto.getId(), ItemMapper.toItemDto(updatedItem)));
@@ -249,6 +302,7 @@ class ItemServiceImplTest {
         CommentDtoOut actualCommentDto = itemService.createComment(user.getId(), CommentMapper.toCommentDto(comment), item.getId());
 
         assertEquals(expectedCommentDto, actualCommentDto);
+        verify(itemViewCache).evict(item.getId());
     }
 
     @Test
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemDtoOut;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.user.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemViewCacheTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final User owner = User.builder()
+            .id(1L)
+            .name("owner")
+            .email("owner@email.com")
+            .build();
+
+    private final User author = User.builder()
+            .id(2L)
+            .name("author")
+            .email("author@email.com")
+            .build();
+
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("item name")
+            .description("description")
+            .available(true)
+            .owner(owner)
+            .build();
+
+    private final Item otherItem = Item.builder()
+            .id(2L)
+            .name("other item name")
+            .description("description")
+            .available(true)
+            .owner(owner)
+            .build();
+
+    private final Comment comment = Comment.builder()
+            .id(1L)
+            .text("comment")
+            .created(LocalDateTime.now())
+            .author(author)
+            .item(item)
+            .build();
+
+    private double count(String name, String... tags) {
+        return meterRegistry.get(name).tags("cache", "itemView").tags(tags).functionCounter().count();
+    }
+
+    @Test
+    void findShouldLoadItemOnceAndCountHitsAndMisses() {
+        ItemViewCache cache = new ItemViewCache(itemRepository, commentRepository, meterRegistry, 1_000_000L,
+                Duration.ofMinutes(1));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of(comment));
+
+        ItemDtoOut first = cache.find(item.getId()).orElseThrow().toItemDtoOut();
+        ItemDtoOut second = cache.find(item.getId()).orElseThrow().toItemDtoOut();
+
+        assertEquals(first, second);
+        assertEquals(1, first.getComments().size());
+        assertEquals(owner.getId(), cache.find(item.getId()).orElseThrow().getOwnerId());
+        verify(itemRepository, times(1)).findById(item.getId());
+        assertEquals(2, count("cache.gets", "result", "hit"));
+        assertEquals(1, count("cache.gets", "result", "miss"));
+    }
+
+    @Test
+    void findWhenItemNotFoundShouldReturnEmpty() {
+        ItemViewCache cache = new ItemViewCache(itemRepository, commentRepository, meterRegistry, 1_000_000L,
+                Duration.ofMinutes(1));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.empty());
+
+        assertTrue(cache.find(item.getId()).isEmpty());
+    }
+
+    @Test
+    void evictShouldReloadItem() {
+        ItemViewCache cache = new ItemViewCache(itemRepository, commentRepository, meterRegistry, 1_000_000L,
+                Duration.ofMinutes(1));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of());
+
+        cache.find(item.getId());
+        item.setName("updated name");
+        cache.evict(item.getId());
+
+        assertEquals("updated name", cache.find(item.getId()).orElseThrow().toItemDtoOut().getName());
+        verify(itemRepository, times(2)).findById(item.getId());
+    }
+
+    @Test
+    void evictUserShouldRemoveItemsCommentedByUser() {
+        ItemViewCache cache = new ItemViewCache(itemRepository, commentRepository, meterRegistry, 1_000_000L,
+                Duration.ofMinutes(1));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemRepository.findById(otherItem.getId())).thenReturn(Optional.of(otherItem));
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of(comment));
+        when(commentRepository.findAllByItemId(otherItem.getId())).thenReturn(List.of());
+
+        cache.find(item.getId());
+        cache.find(otherItem.getId());
+        cache.evictUser(author.getId());
+        cache.find(item.getId());
+        cache.find(otherItem.getId());
+
+        verify(itemRepository, times(2)).findById(item.getId());
+        verify(itemRepository, times(1)).findById(otherItem.getId());
+    }
+
+    @Test
+    void findWhenEntryExpiredShouldReloadItem() {
+        ItemViewCache cache = new ItemViewCache(itemRepository, commentRepository, meterRegistry, 1_000_000L,
+                Duration.ZERO);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of());
+
+        cache.find(item.getId());
+        item.setName("updated elsewhere");
+
+        assertEquals("updated elsewhere", cache.find(item.getId()).orElseThrow().toItemDtoOut().getName());
+        verify(itemRepository, times(2)).findById(item.getId());
+    }
+}
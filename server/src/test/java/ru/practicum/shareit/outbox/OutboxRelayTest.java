@@ -0,0 +1,111 @@
+package ru.practicum.shareit.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private ChangeEventSink sink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, sink, transactionManager, new SimpleMeterRegistry(), false,
+                Duration.ofSeconds(1), 2, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayShouldPublishEventsInOrderAndDeleteThem() {
+        OutboxEvent first = event(1L, OutboxEventType.ITEM_CREATED);
+        OutboxEvent second = event(2L, OutboxEventType.ITEM_UPDATED);
+        when(outboxRepository.findOldest(any())).thenReturn(List.of(first, second));
+
+        assertEquals(2, relay.relay());
+
+        ArgumentCaptor<List<ChangeEventDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sink).publish(captor.capture());
+        assertEquals(List.of(1L, 2L), List.of(captor.getValue().get(0).getId(), captor.getValue().get(1).getId()));
+        assertEquals("item", captor.getValue().get(0).getAggregateType());
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    void relayWhenSinkFailsShouldKeepEventsAndCountAttempt() {
+        OutboxEvent event = event(1L, OutboxEventType.USER_CREATED);
+        when(outboxRepository.findOldest(any())).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("sink unavailable")).when(sink).publish(anyList());
+
+        assertEquals(0, relay.relay());
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, event.getAttempts());
+        assertFalse(event.isParked());
+    }
+
+    @Test
+    void relayWhenOneEventFailsShouldPublishEventsBeforeItAndParkItAfterMaxAttempts() {
+        OutboxEvent first = event(1L, OutboxEventType.ITEM_CREATED);
+        OutboxEvent poison = event(2L, OutboxEventType.ITEM_UPDATED);
+        poison.setAttempts(1);
+        when(outboxRepository.findOldest(any())).thenReturn(List.of(first, poison));
+        doAnswer(invocation -> {
+            List<ChangeEventDto> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getId().equals(poison.getId()))) {
+                throw new IllegalStateException("bad event");
+            }
+            return null;
+        }).when(sink).publish(anyList());
+
+        assertEquals(1, relay.relay());
+
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L));
+        assertEquals(2, poison.getAttempts());
+        assertTrue(poison.isParked());
+    }
+
+    @Test
+    void relayWhenNoEventsShouldNotPublish() {
+        when(outboxRepository.findOldest(any())).thenReturn(Collections.emptyList());
+
+        assertEquals(0, relay.relay());
+        verify(sink, never()).publish(anyList());
+    }
+
+    private static OutboxEvent event(Long id, OutboxEventType type) {
+        OutboxEvent event = new OutboxEvent(type, 1L, id, "{}", LocalDateTime.now());
+        event.setId(id);
+        return event;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.User;
@@ -19,6 +20,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -87,7 +89,7 @@ class ItemRequestControllerTest {
     void getAllRequests() {
         Integer from = 0;
         Integer size = 10;
-        when(requestService.getAllRequests(user.getId(), from, size)).thenReturn(List.of(requestDto));
+        when(requestService.getAllRequests(user.getId(), from, size, null)).thenReturn(List.of(requestDto));
 
         String result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -101,11 +103,25 @@ class ItemRequestControllerTest {
         assertEquals(objectMapper.writeValueAsString(List.of(requestDto)), result);
     }
 
+    @Test
+    @SneakyThrows
+    void getAllRequestsWhenPageIsFullShouldReturnNextCursor() {
+        when(requestService.getAllRequests(user.getId(), 0, 1, null)).thenReturn(List.of(requestDto));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/requests/all")
+                        .param("size", "1")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        requestDto.getCreated() + "," + requestDto.getId()));
+    }
+
     @Test
     @SneakyThrows
     void get() {
         Long requestId = 1L;
 
+        when(requestService.findRequestETag(user.getId(), requestId)).thenReturn("request-1-0");
         when(requestService.getRequestById(user.getId(), requestId)).thenReturn(requestDto);
 
         String result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/{requestId}", requestId)
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -12,6 +13,7 @@ import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -73,4 +75,51 @@ class RequestRepositoryTest {
         assertEquals(requests.size(), 1);
         assertEquals(requests.get(0).getDescription(), "request description");
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByRequesterIdNotOrderByCreatedDescIdDesc() {
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 12, 0);
+        ItemRequest first = requestRepository.save(ItemRequest.builder()
+                .description("first")
+                .created(created)
+                .requester(user2)
+                .build());
+        ItemRequest second = requestRepository.save(ItemRequest.builder()
+                .description("second")
+                .created(created)
+                .requester(user2)
+                .build());
+
+        List<ItemRequest> requests = requestRepository.findAllByRequester_IdNotOrderByCreatedDescIdDesc(
+                user1.getId(), PageRequest.of(0, 3));
+
+        assertEquals(List.of(request2.getId(), second.getId(), first.getId()),
+                requests.stream().map(ItemRequest::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllOtherRequestsBefore() {
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 12, 0);
+        ItemRequest older = requestRepository.save(ItemRequest.builder()
+                .description("older")
+                .created(created.minusSeconds(1L))
+                .requester(user2)
+                .build());
+        ItemRequest sameTime = requestRepository.save(ItemRequest.builder()
+                .description("same time")
+                .created(created)
+                .requester(user2)
+                .build());
+        ItemRequest cursor = requestRepository.save(ItemRequest.builder()
+                .description("cursor")
+                .created(created)
+                .requester(user2)
+                .build());
+
+        List<ItemRequest> requests = requestRepository.findAllOtherRequestsBefore(user1.getId(), cursor.getCreated(),
+                cursor.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(sameTime.getId(), older.getId()),
+                requests.stream().map(ItemRequest::getId).collect(Collectors.toList()));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -7,7 +8,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoOut;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -16,6 +19,7 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +35,9 @@ class RequestServiceImplTest {
     @Mock
     private ItemRequestRepository requestRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
     @Mock
     private UserService userService;
 
@@ -63,6 +70,15 @@ class RequestServiceImplTest {
             .items(List.of(item))
             .build();
 
+    @BeforeEach
+    void setUp() {
+        item.setRequest(request);
+    }
+
+    private List<Item> requestItems() {
+        return List.of(item);
+    }
+
     @Test
     void addNewRequest() {
         ItemRequestDto requestDto = ItemRequestMapper.toRequestDto(request);
@@ -78,8 +94,8 @@ class RequestServiceImplTest {
     @Test
     void getUserRequests() {
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
-        when(userService.findById(user.getId())).thenReturn(userDto);
         when(requestRepository.findAllByRequesterId(userDto.getId())).thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(request.getId()))).thenReturn(requestItems());
 
         List<ItemRequestDtoOut> actualRequestsDto = requestService.getUserRequests(userDto.getId());
 
@@ -89,20 +105,39 @@ class RequestServiceImplTest {
     @Test
     void getAllRequests() {
         List<ItemRequestDtoOut> expectedRequestsDto = List.of(ItemRequestMapper.toRequestDtoOut(request));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(requestRepository.findAllByRequester_IdNotOrderByCreatedDesc(anyLong(), any(PageRequest.class)))
+        when(requestRepository.findAllByRequester_IdNotOrderByCreatedDescIdDesc(anyLong(), any(PageRequest.class)))
                 .thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(request.getId()))).thenReturn(requestItems());
 
-        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10);
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10, null);
 
         assertEquals(expectedRequestsDto, actualRequestsDto);
     }
 
+    @Test
+    void getAllRequestsWhenCursorIsSet() {
+        LocalDateTime created = LocalDateTime.of(2023, 10, 1, 12, 0);
+        when(requestRepository.findAllOtherRequestsBefore(userDto.getId(), created, 5L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(request.getId()))).thenReturn(requestItems());
+
+        List<ItemRequestDtoOut> actualRequestsDto = requestService.getAllRequests(userDto.getId(), 0, 10,
+                "2023-10-01T12:00:00,5");
+
+        assertEquals(List.of(ItemRequestMapper.toRequestDtoOut(request)), actualRequestsDto);
+    }
+
+    @Test
+    void getAllRequestsWhenCursorIsNotValidShouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> requestService.getAllRequests(userDto.getId(), 0, 10, "not a cursor"));
+    }
+
     @Test
     void getRequestById() {
         ItemRequestDtoOut expectedRequestDto = ItemRequestMapper.toRequestDtoOut(request);
-        when(userService.findById(user.getId())).thenReturn(userDto);
         when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(request.getId()))).thenReturn(requestItems());
 
         ItemRequestDtoOut actualRequestDto = requestService.getRequestById(userDto.getId(), request.getId());
 
@@ -111,7 +146,6 @@ class RequestServiceImplTest {
 
     @Test
     void getRequestByIdWhenRequestIdIsNotValidShouldThrowObjectNotFoundException() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
         when(requestRepository.findById(request.getId())).thenReturn(Optional.empty());
 
         NotFoundException requestNotFoundException = assertThrows(NotFoundException.class,
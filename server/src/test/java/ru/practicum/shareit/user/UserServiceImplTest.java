@@ -4,11 +4,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemViewCache;
+import ru.practicum.shareit.outbox.OutboxWriter;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,6 +28,18 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemViewCache itemViewCache;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Spy
+    private UserExistenceCache userExistenceCache = new UserExistenceCache(10, Duration.ofMinutes(1));
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -81,6 +99,48 @@ class UserServiceImplTest {
         assertEquals(userNotFoundException.getMessage(), "Пользователя с " + userId + " не существует");
     }
 
+    @Test
+    void checkExistsShouldQueryRepositoryOnce() {
+        long userId = 1L;
+        when(userRepository.existsById(userId)).thenReturn(true);
+
+        userService.checkExists(userId);
+        userService.checkExists(userId);
+
+        verify(userRepository, times(1)).existsById(userId);
+    }
+
+    @Test
+    void checkExistsWhenUserNotFound() {
+        long userId = 0L;
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        NotFoundException userNotFoundException = assertThrows(NotFoundException.class,
+                () -> userService.checkExists(userId));
+
+        assertEquals(userNotFoundException.getMessage(), "Пользователя с " + userId + " не существует");
+    }
+
+    @Test
+    void checkExistsAfterDeleteShouldQueryRepository() {
+        long userId = 1L;
+        when(userRepository.existsById(userId)).thenReturn(true, false);
+
+        userService.checkExists(userId);
+        userService.delete(userId);
+
+        assertThrows(NotFoundException.class, () -> userService.checkExists(userId));
+    }
+
+    @Test
+    void existenceCacheShouldForgetUserAfterTtl() {
+        UserExistenceCache cache = new UserExistenceCache(10, Duration.ZERO);
+
+        cache.add(1L, cache.stamp());
+
+        assertFalse(cache.contains(1L));
+    }
+
     @Test
     void findAllUsersTest() {
         List<User> expectedUsers = List.of(new User());
@@ -101,5 +161,6 @@ class UserServiceImplTest {
         long userId = 0L;
         userService.delete(userId);
         verify(userRepository, times(1)).deleteById(userId);
+        verify(itemViewCache).evictUser(userId);
     }
 }
\ No newline at end of file